@@ -0,0 +1,170 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder.benchmarks;
+
+import com.andrey4623.intellij.plugins.effectiveinnerbuilder.BuilderPlan;
+import com.andrey4623.intellij.plugins.effectiveinnerbuilder.BuilderRenderer;
+import com.andrey4623.intellij.plugins.effectiveinnerbuilder.FieldDescriptor;
+import com.andrey4623.intellij.plugins.effectiveinnerbuilder.GenerationSettings;
+import com.andrey4623.intellij.plugins.effectiveinnerbuilder.Nullness;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FixtureGenerator {
+
+    private static final String PACKAGE = "com.andrey4623.intellij.plugins.effectiveinnerbuilder.benchmarks";
+
+    private static final int[] FIELD_COUNTS = {5, 50, 500};
+
+    private FixtureGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        final Path packageDir = Paths.get(args[0]).resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(packageDir);
+
+        final StringBuilder registry = new StringBuilder();
+
+        for (FixtureMode mode : FixtureMode.values()) {
+            for (int fieldCount : FIELD_COUNTS) {
+                if (!mode.supports(fieldCount)) {
+                    continue;
+                }
+
+                final String className = mode.getClassPrefix() + "Fixture" + fieldCount;
+                final BuilderPlan plan = createPlan(className, fieldCount, mode.createSettings());
+
+                write(packageDir, className, renderFixture(plan));
+                write(packageDir, className + "Ops", renderOps(plan, mode));
+
+                registry.append("if (mode.equals(\"").append(mode.name()).append("\") && fieldCount == ")
+                        .append(fieldCount).append(") {\n");
+                registry.append("return (FixtureOps<Object>) (FixtureOps<?>) new ").append(className).append("Ops();\n");
+                registry.append("}\n");
+            }
+        }
+
+        write(packageDir, "Fixtures", renderRegistry(registry));
+    }
+
+    private static BuilderPlan createPlan(String className, int fieldCount, GenerationSettings settings) {
+        final BuilderPlan.Builder builder = BuilderPlan.builder()
+                .setClassName(className)
+                .setSettings(settings)
+                .setAllFieldsHaveAnnotations(true);
+
+        for (int i = 0; i < fieldCount; i++) {
+            builder.addField(createField("field" + i, i));
+        }
+        return builder.build();
+    }
+
+    private static FieldDescriptor createField(String name, int index) {
+        final FieldDescriptor.Builder builder = FieldDescriptor.builder().setName(name);
+
+        switch (index % 5) {
+            case 0:
+                return builder.setType("int").setBoxedType("java.lang.Integer").setPrimitive(true).build();
+            case 1:
+                return builder.setType("java.lang.String").setBoxedType("java.lang.String")
+                        .setNullness(Nullness.NONNULL).build();
+            case 2:
+                return builder.setType("long").setBoxedType("java.lang.Long").setPrimitive(true).build();
+            case 3:
+                return builder.setType("java.lang.String").setBoxedType("java.lang.String")
+                        .setNullness(Nullness.NULLABLE).build();
+            default:
+                return builder.setType("double").setBoxedType("java.lang.Double").setPrimitive(true).build();
+        }
+    }
+
+    private static String renderFixture(BuilderPlan plan) {
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append("package ").append(PACKAGE).append(";\n\n");
+        sb.append("public class ").append(plan.getClassName()).append(" {\n\n");
+        for (FieldDescriptor field : plan.getFields()) {
+            sb.append("private final ").append(field.getType()).append(' ').append(field.getName()).append(";\n");
+        }
+        sb.append('\n');
+        sb.append(BuilderRenderer.render(plan));
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    private static String renderOps(BuilderPlan plan, FixtureMode mode) {
+        final String className = plan.getClassName();
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append("package ").append(PACKAGE).append(";\n\n");
+        sb.append("public class ").append(className).append("Ops implements FixtureOps<").append(className)
+                .append("> {\n\n");
+
+        sb.append("@Override\n");
+        sb.append("public ").append(className).append(" build(int seed) {\n");
+        sb.append("return ").append(className).append('.').append(mode.getBuilderMethod()).append("()");
+        for (FieldDescriptor field : getSetterOrder(plan)) {
+            sb.append("\n.set").append(Character.toUpperCase(field.getName().charAt(0)))
+                    .append(field.getName().substring(1)).append('(').append(getValue(field)).append(')');
+        }
+        sb.append("\n.build();\n");
+        sb.append("}\n\n");
+
+        sb.append("@Override\n");
+        sb.append("public ").append(className).append(" copy(").append(className).append(" source) {\n");
+        sb.append("return ").append(mode.getCopyExpression(className)).append(";\n");
+        sb.append("}\n");
+
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    private static List<FieldDescriptor> getSetterOrder(BuilderPlan plan) {
+        final List<FieldDescriptor> fields = new ArrayList<>();
+        for (FieldDescriptor field : plan.getFields()) {
+            if (field.isPrimitive() || field.isNonNull()) {
+                fields.add(field);
+            }
+        }
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!field.isPrimitive() && !field.isNonNull()) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static String getValue(FieldDescriptor field) {
+        switch (field.getType()) {
+            case "int":
+            case "long":
+            case "double":
+                return "seed";
+            default:
+                return "\"" + field.getName() + "\"";
+        }
+    }
+
+    private static String renderRegistry(StringBuilder registry) {
+        return "package " + PACKAGE + ";\n\n"
+                + "public class Fixtures {\n\n"
+                + "private Fixtures() {\n"
+                + "}\n\n"
+                + "@SuppressWarnings(\"unchecked\")\n"
+                + "public static FixtureOps<Object> get(String mode, int fieldCount) {\n"
+                + registry
+                + "throw new IllegalArgumentException(mode + \" with \" + fieldCount + \" fields\");\n"
+                + "}\n"
+                + "}\n";
+    }
+
+    private static void write(Path packageDir, String className, String source) throws IOException {
+        Files.write(packageDir.resolve(className + ".java"), source.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder.benchmarks;
+
+import com.andrey4623.intellij.plugins.effectiveinnerbuilder.GenerationSettings;
+
+public enum FixtureMode {
+    CLASSIC("Classic", "builder") {
+        @Override
+        void configure(GenerationSettings.Builder settings) {
+        }
+    },
+    BIT_MASK("BitMask", "builder") {
+        @Override
+        void configure(GenerationSettings.Builder settings) {
+            settings.setTrackSetFieldsInBitMask(true);
+        }
+    },
+    REUSABLE("Reusable", "reusableBuilder") {
+        @Override
+        void configure(GenerationSettings.Builder settings) {
+            settings.setTrackSetFieldsInBitMask(true).setGenerateThreadLocalBuilder(true);
+        }
+    },
+    STAGED("Staged", "builder") {
+        @Override
+        void configure(GenerationSettings.Builder settings) {
+            settings.setGenerateStagedBuilder(true);
+        }
+
+        @Override
+        String getCopyExpression(String className) {
+            return className + ".builder(source).build()";
+        }
+    },
+    WITHERS("Withers", "builder") {
+        @Override
+        void configure(GenerationSettings.Builder settings) {
+            settings.setGenerateWithers(true);
+        }
+
+        @Override
+        String getCopyExpression(String className) {
+            return "source.withField0(source.getField0() + 1)";
+        }
+
+        @Override
+        boolean supports(int fieldCount) {
+            return fieldCount <= MAX_CANONICAL_CONSTRUCTOR_FIELD_COUNT;
+        }
+    },
+    CANONICAL("Canonical", "builder") {
+        @Override
+        void configure(GenerationSettings.Builder settings) {
+            settings.setUseCanonicalConstructor(true);
+        }
+
+        @Override
+        boolean supports(int fieldCount) {
+            return fieldCount <= MAX_CANONICAL_CONSTRUCTOR_FIELD_COUNT;
+        }
+    };
+
+    private static final int MAX_CANONICAL_CONSTRUCTOR_FIELD_COUNT = 50;
+
+    private final String classPrefix;
+    private final String builderMethod;
+
+    FixtureMode(String classPrefix, String builderMethod) {
+        this.classPrefix = classPrefix;
+        this.builderMethod = builderMethod;
+    }
+
+    abstract void configure(GenerationSettings.Builder settings);
+
+    String getCopyExpression(String className) {
+        return className + ".builder().of(source).build()";
+    }
+
+    boolean supports(int fieldCount) {
+        return true;
+    }
+
+    GenerationSettings createSettings() {
+        final GenerationSettings.Builder settings = GenerationSettings.builder()
+                .setGenerateGetters(true)
+                .setGenerateBuilder(true)
+                .setCheckForNullsInConstructor(true);
+        configure(settings);
+        return settings.build();
+    }
+
+    String getClassPrefix() {
+        return classPrefix;
+    }
+
+    String getBuilderMethod() {
+        return builderMethod;
+    }
+}
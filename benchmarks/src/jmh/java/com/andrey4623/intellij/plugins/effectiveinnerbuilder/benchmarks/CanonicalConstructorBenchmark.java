@@ -0,0 +1,44 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CanonicalConstructorBenchmark {
+
+    @Param({"BIT_MASK", "CANONICAL"})
+    public String mode;
+
+    @Param({"5", "50"})
+    public int fieldCount;
+
+    private FixtureOps<Object> ops;
+    private Object source;
+    private int seed;
+
+    @Setup
+    public void setUp() {
+        ops = Fixtures.get(mode, fieldCount);
+        source = ops.build(42);
+    }
+
+    @Benchmark
+    public Object build() {
+        return ops.build(seed++);
+    }
+
+    @Benchmark
+    public Object copy() {
+        return ops.copy(source);
+    }
+}
@@ -0,0 +1,8 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder.benchmarks;
+
+public interface FixtureOps<T> {
+
+    T build(int seed);
+
+    T copy(T source);
+}
@@ -0,0 +1,35 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WitherBenchmark {
+
+    @Param({"5", "50"})
+    public int fieldCount;
+
+    private FixtureOps<Object> ops;
+    private Object source;
+
+    @Setup
+    public void setUp() {
+        ops = Fixtures.get("WITHERS", fieldCount);
+        source = ops.build(42);
+    }
+
+    @Benchmark
+    public Object copy() {
+        return ops.copy(source);
+    }
+}
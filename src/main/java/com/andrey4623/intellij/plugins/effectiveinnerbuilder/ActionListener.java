@@ -4,14 +4,20 @@ import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.LangDataKeys;
 import com.intellij.openapi.actionSystem.PlatformDataKeys;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+
 public class ActionListener extends AnAction {
 
     @Override
@@ -22,21 +28,35 @@ public class ActionListener extends AnAction {
             return;
         }
 
+        generate(psiClass);
+    }
+
+    static void generate(PsiClass psiClass) {
         final GeneratorOptions generatorOptions = new GeneratorOptions(psiClass);
         generatorOptions.show();
 
         if (generatorOptions.isOK()) {
-            WriteCommandAction.runWriteCommandAction(
-                    psiClass.getProject(),
-                    () -> BuilderGenerator.generate(
-                            psiClass,
-                            generatorOptions.makeFieldsPrivateAndFinal(),
-                            generatorOptions.ensureAllFieldsHaveAnnotations(),
-                            generatorOptions.generateGetters(),
-                            generatorOptions.generateBuilder(),
-                            generatorOptions.useJSR305Annotations()
+            final Project project = psiClass.getProject();
+            final GenerationSettings settings = generatorOptions.getSettings();
+            final GenerationStatistics statistics = GenerationStatistics.of(psiClass);
+
+            ReadAction.nonBlocking(() -> BuilderPlanner.plan(psiClass, settings, statistics))
+                    .withDocumentsCommitted(project)
+                    .expireWhen(() -> !psiClass.isValid())
+                    .finishOnUiThread(
+                            ModalityState.defaultModalityState(),
+                            plan -> {
+                                statistics.setFieldCount(plan.getFields().size());
+                                WriteCommandAction.runWriteCommandAction(
+                                        project,
+                                        () -> BuilderGenerator.generate(psiClass, plan, statistics)
+                                );
+                                GenerationStatisticsService.getInstance(project).record(statistics);
+
+                                GenerationNotifications.warnBinaryCodecSkipped(project, Collections.singletonList(plan));
+                            }
                     )
-            );
+                    .submit(AppExecutorUtil.getAppExecutorService());
         }
     }
 
@@ -0,0 +1,266 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class BinaryCodecRenderer {
+
+    private static final String BYTE_BUFFER = "java.nio.ByteBuffer";
+    private static final String UTF_8 = "java.nio.charset.StandardCharsets.UTF_8";
+    private static final String STRING = "java.lang.String";
+    private static final String BYTE_ARRAY = "byte[]";
+    private static final String PRESENCE = "presence";
+
+    private BinaryCodecRenderer() {
+    }
+
+    public static boolean isSupported(BuilderPlan plan) {
+        return getUnsupportedFields(plan).isEmpty();
+    }
+
+    public static List<String> getUnsupportedFields(BuilderPlan plan) {
+        final List<String> result = new ArrayList<>();
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!isSupported(field)) {
+                result.add(field.getName());
+            }
+        }
+        return result;
+    }
+
+    static void renderWriteTo(StringBuilder sb, BuilderPlan plan) {
+        final List<FieldDescriptor> optionalFields = getOptionalFields(plan);
+
+        BuilderRenderer.renderMarker(sb);
+        sb.append("public void writeTo(").append(BYTE_BUFFER).append(" buffer) {\n");
+
+        for (int word = 0; word < getWordCount(optionalFields.size()); word++) {
+            sb.append("byte ").append(PRESENCE).append(word).append(" = 0;\n");
+        }
+        for (int i = 0; i < optionalFields.size(); i++) {
+            sb.append("if (this.").append(optionalFields.get(i).getName()).append(" != null) {\n");
+            sb.append(PRESENCE).append(i / Byte.SIZE).append(" |= ").append(getBit(i)).append(";\n");
+            sb.append("}\n");
+        }
+        for (int word = 0; word < getWordCount(optionalFields.size()); word++) {
+            sb.append("buffer.put(").append(PRESENCE).append(word).append(");\n");
+        }
+
+        for (FieldDescriptor field : plan.getFields()) {
+            final int optionalIndex = optionalFields.indexOf(field);
+            if (optionalIndex >= 0) {
+                sb.append("if (this.").append(field.getName()).append(" != null) {\n");
+                renderWrite(sb, field);
+                sb.append("}\n");
+            } else {
+                renderWrite(sb, field);
+            }
+        }
+
+        sb.append("}\n\n");
+
+        if (isUsingStrings(plan)) {
+            BuilderRenderer.renderMarker(sb);
+            sb.append("private static void writeUtf8(").append(BYTE_BUFFER).append(" buffer, String value) {\n");
+            sb.append("writeBytes(buffer, value.getBytes(").append(UTF_8).append("));\n");
+            sb.append("}\n\n");
+
+            BuilderRenderer.renderMarker(sb);
+            sb.append("private static String readUtf8(").append(BYTE_BUFFER).append(" buffer) {\n");
+            sb.append("return new String(readBytes(buffer), ").append(UTF_8).append(");\n");
+            sb.append("}\n\n");
+        }
+
+        if (isUsingStrings(plan) || isUsingByteArrays(plan)) {
+            BuilderRenderer.renderMarker(sb);
+            sb.append("private static void writeBytes(").append(BYTE_BUFFER).append(" buffer, byte[] value) {\n");
+            sb.append("buffer.putInt(value.length);\n");
+            sb.append("buffer.put(value);\n");
+            sb.append("}\n\n");
+
+            BuilderRenderer.renderMarker(sb);
+            sb.append("private static byte[] readBytes(").append(BYTE_BUFFER).append(" buffer) {\n");
+            sb.append("final byte[] value = new byte[buffer.getInt()];\n");
+            sb.append("buffer.get(value);\n");
+            sb.append("return value;\n");
+            sb.append("}\n\n");
+        }
+
+        for (FieldDescriptor field : plan.getFields()) {
+            if (field.isEnumType()) {
+                BuilderRenderer.renderMarker(sb);
+                sb.append("private static final ").append(field.getType()).append("[] ").append(getEnumValues(field))
+                        .append(" = ").append(field.getType()).append(".values();\n\n");
+            }
+        }
+
+        BuilderRenderer.renderMarker(sb);
+        sb.append("public static ").append(plan.getClassName()).append(" readFrom(").append(BYTE_BUFFER)
+                .append(" buffer) {\n");
+        sb.append("return new Builder().readFrom(buffer).build();\n");
+        sb.append("}\n\n");
+    }
+
+    static void renderReadFrom(StringBuilder sb, BuilderPlan plan) {
+        final List<FieldDescriptor> optionalFields = getOptionalFields(plan);
+
+        BuilderRenderer.renderMarker(sb);
+        sb.append("public Builder readFrom(").append(BYTE_BUFFER).append(" buffer) {\n");
+
+        for (int word = 0; word < getWordCount(optionalFields.size()); word++) {
+            sb.append("final byte ").append(PRESENCE).append(word).append(" = buffer.get();\n");
+        }
+
+        for (FieldDescriptor field : plan.getFields()) {
+            sb.append("set").append(BuilderRenderer.makeFirstLetterUpperCase(field.getName())).append('(');
+
+            final int optionalIndex = optionalFields.indexOf(field);
+            if (optionalIndex >= 0) {
+                sb.append('(').append(PRESENCE).append(optionalIndex / Byte.SIZE).append(" & ")
+                        .append(getBit(optionalIndex)).append(") != 0 ? ");
+                renderRead(sb, field);
+                sb.append(" : null");
+            } else {
+                renderRead(sb, field);
+            }
+
+            sb.append(");\n");
+        }
+
+        sb.append("return this;\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderWrite(StringBuilder sb, FieldDescriptor field) {
+        final String name = "this." + field.getName();
+
+        if (field.isEnumType()) {
+            sb.append("buffer.putInt(").append(name).append(".ordinal());\n");
+            return;
+        }
+
+        switch (getValueType(field)) {
+            case STRING:
+                sb.append("writeUtf8(buffer, ").append(name).append(");\n");
+                break;
+            case BYTE_ARRAY:
+                sb.append("writeBytes(buffer, ").append(name).append(");\n");
+                break;
+            case "boolean":
+                sb.append("buffer.put(").append(name).append(" ? (byte) 1 : (byte) 0);\n");
+                break;
+            case "byte":
+                sb.append("buffer.put(").append(name).append(");\n");
+                break;
+            default:
+                sb.append("buffer.put").append(BuilderRenderer.makeFirstLetterUpperCase(getValueType(field)))
+                        .append('(').append(name).append(");\n");
+                break;
+        }
+    }
+
+    private static void renderRead(StringBuilder sb, FieldDescriptor field) {
+        if (field.isEnumType()) {
+            sb.append(getEnumValues(field)).append("[buffer.getInt()]");
+            return;
+        }
+
+        switch (getValueType(field)) {
+            case STRING:
+                sb.append("readUtf8(buffer)");
+                break;
+            case BYTE_ARRAY:
+                sb.append("readBytes(buffer)");
+                break;
+            case "boolean":
+                sb.append("buffer.get() != 0");
+                break;
+            case "byte":
+                sb.append("buffer.get()");
+                break;
+            default:
+                sb.append("buffer.get").append(BuilderRenderer.makeFirstLetterUpperCase(getValueType(field)))
+                        .append("()");
+                break;
+        }
+    }
+
+    private static boolean isSupported(FieldDescriptor field) {
+        if (field.isEnumType()) {
+            return true;
+        }
+
+        switch (getValueType(field)) {
+            case "boolean":
+            case "byte":
+            case "short":
+            case "char":
+            case "int":
+            case "long":
+            case "float":
+            case "double":
+            case STRING:
+            case BYTE_ARRAY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String getValueType(FieldDescriptor field) {
+        if (field.isPrimitive()) {
+            return field.getType();
+        }
+
+        final String primitive = FieldLayout.getPrimitiveType(field.getType());
+        return primitive != null ? primitive : field.getType();
+    }
+
+    private static List<FieldDescriptor> getOptionalFields(BuilderPlan plan) {
+        final List<FieldDescriptor> result = new ArrayList<>();
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!field.isPrimitive() && !field.isNonNull()) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isUsingStrings(BuilderPlan plan) {
+        for (FieldDescriptor field : plan.getFields()) {
+            if (STRING.equals(field.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUsingByteArrays(BuilderPlan plan) {
+        for (FieldDescriptor field : plan.getFields()) {
+            if (BYTE_ARRAY.equals(field.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getEnumValues(FieldDescriptor field) {
+        final StringBuilder sb = new StringBuilder();
+        for (char c : field.getName().toCharArray()) {
+            if (Character.isUpperCase(c) && sb.length() > 0) {
+                sb.append('_');
+            }
+            sb.append(c);
+        }
+        return sb.toString().toUpperCase(Locale.ROOT) + "_VALUES";
+    }
+
+    private static int getWordCount(int bitCount) {
+        return (bitCount + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    private static String getBit(int index) {
+        return "0x" + Integer.toHexString(1 << (index % Byte.SIZE));
+    }
+}
@@ -6,70 +6,82 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifier;
-import com.intellij.psi.PsiParameter;
-import com.intellij.psi.PsiPrimitiveType;
-import com.intellij.psi.PsiStatement;
-import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BuilderGenerator {
 
-    private static final String NONNULL_ANNOTATION_QUALIFIED_NAME = "javax.annotation.Nonnull";
-    private static final String NULLABLE_ANNOTATION_QUALIFIED_NAME = "javax.annotation.Nullable";
-
-    private static final String NONNULL_ANNOTATION = "@" + NONNULL_ANNOTATION_QUALIFIED_NAME;
-    private static final String NULLABLE_ANNOTATION = "@" + NULLABLE_ANNOTATION_QUALIFIED_NAME;
-
+    private static final String PARAMETERS_ARE_NONNULL_BY_DEFAULT_ANNOTATION_QUALIFIED_NAME =
+            "javax.annotation.ParametersAreNonnullByDefault";
     private static final String PARAMETERS_ARE_NONNULL_BY_DEFAULT_ANNOTATION =
-            "@javax.annotation.ParametersAreNonnullByDefault";
+            "@" + PARAMETERS_ARE_NONNULL_BY_DEFAULT_ANNOTATION_QUALIFIED_NAME;
 
     private BuilderGenerator() {
     }
 
-    public static void generate(
-            PsiClass psiClass,
-            boolean makeFieldsPrivateAndFinal,
-            boolean ensureAllFieldsHaveAnnotations,
-            boolean generateGetters,
-            boolean generateBuilder,
-            boolean checkForNullsInConstructor
-    ) {
-        if (makeFieldsPrivateAndFinal) {
-            makeFieldsPrivateAndFinal(psiClass);
+    public static void generate(PsiClass psiClass, GenerationSettings settings) {
+        generate(psiClass, BuilderPlanner.plan(psiClass, settings));
+    }
+
+    public static void generate(PsiClass psiClass, BuilderPlan plan) {
+        generate(psiClass, plan, GenerationListener.NONE);
+    }
+
+    public static void generate(PsiClass psiClass, BuilderPlan plan, GenerationListener listener) {
+        final GenerationSettings settings = plan.getSettings();
+
+        final PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(psiClass.getProject());
+        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(psiClass.getProject());
+
+        if (settings.makeFieldsPrivateAndFinal()) {
+            listener.phaseStarted(GenerationPhase.MAKE_FIELDS_PRIVATE_AND_FINAL);
+            makeFieldsPrivateAndFinal(psiClass, plan, listener);
+            listener.phaseFinished(GenerationPhase.MAKE_FIELDS_PRIVATE_AND_FINAL);
         }
 
-        if (ensureAllFieldsHaveAnnotations) {
-            ensureAllFieldsHaveAnnotations(psiClass);
+        if (settings.ensureAllFieldsHaveAnnotations()) {
+            listener.phaseStarted(GenerationPhase.ENSURE_ANNOTATIONS);
+            ensureAllFieldsHaveAnnotations(psiClass, plan, elementFactory, codeStyleManager, listener);
+            listener.phaseFinished(GenerationPhase.ENSURE_ANNOTATIONS);
         }
 
-        if (generateGetters) {
-            generateGetters(psiClass);
+        if (settings.generateGetters() || settings.generateBuilder() || settings.generateEqualsAndHashCode()) {
+            listener.phaseStarted(GenerationPhase.RENDER);
+            final String text = BuilderRenderer.render(plan);
+            listener.phaseFinished(GenerationPhase.RENDER);
+
+            mergeMembers(psiClass, text, elementFactory, codeStyleManager, listener);
         }
 
-        if (generateBuilder) {
-            final boolean allFieldsHaveAnnotations = areAllFieldsHaveAnnotations(psiClass);
-            generateBuilder(psiClass, checkForNullsInConstructor, allFieldsHaveAnnotations);
+        if (settings.generateBuilder() && plan.areAllFieldsHaveAnnotations()) {
+            listener.phaseStarted(GenerationPhase.ANNOTATE_CLASS);
+            createParametersAreNonNullByDefaultAnnotation(psiClass, elementFactory, codeStyleManager, listener);
+            listener.phaseFinished(GenerationPhase.ANNOTATE_CLASS);
         }
     }
 
-    private static void makeFieldsPrivateAndFinal(PsiClass psiClass) {
-        final PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(psiClass.getProject());
-        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(psiClass.getProject());
+    private static void makeFieldsPrivateAndFinal(PsiClass psiClass, BuilderPlan plan, GenerationListener listener) {
+        final Map<String, PsiField> psiFields = getFieldsByName(psiClass);
 
-        for (PsiField psiField : getFields(psiClass)) {
-            final boolean fieldNonNull = isFieldNonNull(psiField);
-            final boolean fieldNullable = isFieldNullable(psiField);
-
-            if (fieldNonNull) {
-                deleteNonNullAnnotation(psiField);
+        for (FieldDescriptor field : plan.getFields()) {
+            final PsiField psiField = psiFields.get(field.getName());
+            if (psiField == null || isPrivateAndFinal(psiField)) {
+                continue;
             }
-            if (fieldNullable) {
-                deleteNullableAnnotation(psiField);
+
+            final List<PsiElement> annotations = new ArrayList<>();
+            if (field.getNullness() != Nullness.UNKNOWN && !field.isAnnotationMissing()) {
+                for (PsiAnnotation annotation : NullnessResolver.findNullnessAnnotations(psiField)) {
+                    annotations.add(annotation.copy());
+                    listener.elementCreated();
+                    annotation.delete();
+                }
             }
 
             psiField.getModifierList().setModifierProperty(PsiModifier.FINAL, true);
@@ -77,336 +89,98 @@ public class BuilderGenerator {
             psiField.getModifierList().setModifierProperty(PsiModifier.PROTECTED, false);
             psiField.getModifierList().setModifierProperty(PsiModifier.PRIVATE, true);
 
-            if (fieldNonNull) {
-                addAnnotationForField(psiClass, psiField, NONNULL_ANNOTATION, elementFactory, codeStyleManager);
-            }
-
-            if (fieldNullable) {
-                addAnnotationForField(psiClass, psiField, NULLABLE_ANNOTATION, elementFactory, codeStyleManager);
+            for (PsiElement annotation : annotations) {
+                addAnnotationForField(psiField, annotation, listener);
             }
         }
     }
 
-    private static void addAnnotationForField(PsiClass psiClass, PsiField psiField, String annotation, PsiElementFactory elementFactory, JavaCodeStyleManager codeStyleManager) {
-        PsiElement psiElement = codeStyleManager.shortenClassReferences(
-                elementFactory.createAnnotationFromText(
-                        annotation,
-                        psiClass
-                )
-        );
-        psiField.getModifierList().addBefore(psiElement, psiField.getModifierList().getFirstChild());
-    }
-
-    private static void ensureAllFieldsHaveAnnotations(PsiClass psiClass) {
-        PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(psiClass.getProject());
-        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(psiClass.getProject());
-
-        for (PsiField field : psiClass.getFields()) {
-            if (
-                    !field.hasModifierProperty(PsiModifier.STATIC)
-                            && !isFieldNullable(field)
-                            && !isFieldNonNull(field)
-                            && (!(field.getType() instanceof PsiPrimitiveType))
-            ) {
-                addAnnotationForField(psiClass, field, NONNULL_ANNOTATION, elementFactory, codeStyleManager);
-            }
-        }
+    private static boolean isPrivateAndFinal(PsiField psiField) {
+        return psiField.hasModifierProperty(PsiModifier.PRIVATE) && psiField.hasModifierProperty(PsiModifier.FINAL);
     }
 
-    private static void generateGetters(PsiClass psiClass) {
-        final PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(psiClass.getProject());
-        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(psiClass.getProject());
-
-        List<PsiField> psiFields = new ArrayList<>();
-
-        PsiField[] fields = psiClass.getFields();
-        for (PsiField field : fields) {
-            if (!field.hasModifierProperty(PsiModifier.STATIC)) {
-                psiFields.add(field);
-            }
-        }
-
-        for (PsiField psiField : psiFields) {
-            final PsiMethod method = elementFactory.createMethod(
-                    "get" + makeFirstLetterUpperCase(psiField.getName()), psiField.getType()
-            );
-
-            method.getBody().add(elementFactory.createStatementFromText(
-                    "return " + psiField.getName() + ";\n", psiClass
-            ));
-
-            if (!(psiField.getType() instanceof PsiPrimitiveType)) {
-                if (isFieldNullable(psiField)) {
-                    PsiAnnotation annotation = elementFactory.createAnnotationFromText(NULLABLE_ANNOTATION, psiClass);
-                    PsiElement psiElement = codeStyleManager.shortenClassReferences(annotation);
-                    method.getModifierList().addBefore(psiElement, method.getModifierList().getFirstChild());
-                } else if (isFieldNonNull(psiField)) {
-                    PsiAnnotation annotation = elementFactory.createAnnotationFromText(NONNULL_ANNOTATION, psiClass);
-                    PsiElement psiElement = codeStyleManager.shortenClassReferences(annotation);
-                    method.getModifierList().addBefore(psiElement, method.getModifierList().getFirstChild());
+    private static void ensureAllFieldsHaveAnnotations(
+            PsiClass psiClass,
+            BuilderPlan plan,
+            PsiElementFactory elementFactory,
+            JavaCodeStyleManager codeStyleManager,
+            GenerationListener listener
+    ) {
+        final Map<String, PsiField> psiFields = getFieldsByName(psiClass);
+        PsiElement nonNullAnnotation = null;
+
+        for (FieldDescriptor field : plan.getFields()) {
+            if (field.isAnnotationMissing()) {
+                final PsiField psiField = psiFields.get(field.getName());
+                if (psiField != null) {
+                    if (nonNullAnnotation == null) {
+                        nonNullAnnotation = createAnnotation(
+                                psiClass, BuilderRenderer.NONNULL_ANNOTATION, elementFactory, codeStyleManager, listener
+                        );
+                    }
+                    addAnnotationForField(psiField, nonNullAnnotation, listener);
                 }
             }
-
-            psiClass.add(method);
         }
     }
 
-    private static boolean areAllFieldsHaveAnnotations(PsiClass psiClass) {
-        for (PsiField field : psiClass.getFields()) {
-            if (
-                    !field.hasModifierProperty(PsiModifier.STATIC)
-                            && !isFieldNullable(field)
-                            && !isFieldNonNull(field)
-                            && (!(field.getType() instanceof PsiPrimitiveType))
-            ) {
-                return false;
-            }
+    private static Map<String, PsiField> getFieldsByName(PsiClass psiClass) {
+        final Map<String, PsiField> result = new HashMap<>();
+        for (PsiField psiField : psiClass.getFields()) {
+            result.putIfAbsent(psiField.getName(), psiField);
         }
-        return true;
+        return result;
     }
 
-    private static void generateBuilder(
+    private static PsiElement createAnnotation(
             PsiClass psiClass,
-            boolean checkForNullsInConstructor,
-            boolean allFieldsHaveAnnotations
+            String annotation,
+            PsiElementFactory elementFactory,
+            JavaCodeStyleManager codeStyleManager,
+            GenerationListener listener
     ) {
-        final PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(psiClass.getProject());
-        final JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(psiClass.getProject());
-
-        List<PsiField> psiFields = getFields(psiClass);
-
-        final PsiClass builderClass = createBuilderClass(
-                checkForNullsInConstructor,
-                allFieldsHaveAnnotations,
-                psiClass,
-                psiFields,
-                elementFactory,
-                codeStyleManager
-        );
-        psiClass.add(builderClass);
-
-        psiClass.add(
-                createConstructor(
-                        checkForNullsInConstructor, psiClass, psiFields, builderClass, elementFactory, codeStyleManager
-                )
-        );
-
-        if (allFieldsHaveAnnotations) {
-            createParametersAreNonNullByDefaultAnnotation(psiClass, elementFactory, codeStyleManager);
-        }
+        listener.elementCreated();
+        listener.classReferencesShortened();
+        return codeStyleManager.shortenClassReferences(elementFactory.createAnnotationFromText(annotation, psiClass));
     }
 
-    private static List<PsiField> getFields(PsiClass psiClass) {
-        List<PsiField> psiFields = new ArrayList<>();
-
-        for (PsiField field : psiClass.getFields()) {
-            if (!field.hasModifierProperty(PsiModifier.STATIC)) {
-                psiFields.add(field);
-            }
-        }
-        return psiFields;
+    private static void addAnnotationForField(PsiField psiField, PsiElement annotation, GenerationListener listener) {
+        final PsiModifierList modifierList = psiField.getModifierList();
+        modifierList.addBefore(annotation, modifierList.getFirstChild());
+        listener.elementInserted();
     }
 
-    private static PsiClass createBuilderClass(
-            boolean checkForNullsInConstructor,
-            boolean allFieldsHaveAnnotations,
+    private static void mergeMembers(
             PsiClass psiClass,
-            List<PsiField> psiFields,
+            String text,
             PsiElementFactory elementFactory,
-            JavaCodeStyleManager codeStyleManager
+            JavaCodeStyleManager codeStyleManager,
+            GenerationListener listener
     ) {
-        final PsiClass builderClass = elementFactory.createClass("Builder");
+        listener.phaseStarted(GenerationPhase.PARSE);
+        final PsiClass members = elementFactory.createClassFromText(text, psiClass);
+        listener.elementCreated();
+        listener.phaseFinished(GenerationPhase.PARSE);
 
-        builderClass.getModifierList().add(elementFactory.createKeyword("static"));
-
-        PsiMethod constructor = elementFactory.createConstructor();
-        constructor.getModifierList().setModifierProperty(PsiModifier.PUBLIC, false);
-        constructor.getModifierList().setModifierProperty(PsiModifier.PRIVATE, true);
-        builderClass.add(constructor);
-
-        PsiMethod newBuilderStaticMethod = elementFactory.createMethod("builder", elementFactory.createType(builderClass));
-        newBuilderStaticMethod.getModifierList().setModifierProperty(PsiModifier.STATIC, true);
-        newBuilderStaticMethod.getBody().add(
-                elementFactory.createStatementFromText(
-                        "return new " + elementFactory.createType(builderClass).getName() + "();\n", psiClass
-                )
-        );
-        psiClass.add(newBuilderStaticMethod);
+        listener.phaseStarted(GenerationPhase.SHORTEN_CLASS_REFERENCES);
+        codeStyleManager.shortenClassReferences(members);
+        listener.classReferencesShortened();
+        listener.phaseFinished(GenerationPhase.SHORTEN_CLASS_REFERENCES);
 
-        for (PsiField psiField : psiFields) {
-            PsiType type = psiField.getType();
-
-            if (checkForNullsInConstructor) {
-                if (type instanceof PsiPrimitiveType) {
-                    type = ((PsiPrimitiveType) type).getBoxedType(builderClass);
-                }
-            }
-
-            builderClass.add(elementFactory.createField(psiField.getName(), type));
-
-            PsiMethod method = elementFactory.createMethod(
-                    "set" + makeFirstLetterUpperCase(psiField.getName()),
-                    elementFactory.createType(builderClass)
-            );
-
-            PsiParameter parameter = elementFactory.createParameter(psiField.getName(), psiField.getType());
-            if (isFieldNullable(psiField)) {
-                PsiAnnotation annotationFromText = elementFactory.createAnnotationFromText(NULLABLE_ANNOTATION, builderClass);
-                PsiElement psiElement = codeStyleManager.shortenClassReferences(annotationFromText);
-                parameter.getModifierList().addBefore(psiElement, parameter.getModifierList().getFirstChild());
-            }
-            if (!allFieldsHaveAnnotations) {
-                if (isFieldNonNull(psiField)) {
-                    PsiAnnotation annotationFromText = elementFactory.createAnnotationFromText(NONNULL_ANNOTATION, builderClass);
-                    PsiElement psiElement = codeStyleManager.shortenClassReferences(annotationFromText);
-                    parameter.getModifierList().addBefore(psiElement, parameter.getModifierList().getFirstChild());
-                }
-            }
-            method.getParameterList().add(parameter);
-
-            method.getBody().add(
-                    elementFactory.createStatementFromText(
-                            "this." + psiField.getName() + " = " + psiField.getName() + ";\n",
-                            builderClass
-                    )
-            );
-            method.getBody().add(
-                    elementFactory.createStatementFromText(
-                            "return this;\n",
-                            builderClass
-                    )
-            );
-
-            builderClass.add(method);
-        }
-
-
-        final String className = makeFirstLetterLowerCase(elementFactory.createType(psiClass).getName());
-        PsiMethod of = elementFactory.createMethod("of", elementFactory.createType(builderClass));
-        of.getParameterList().add(elementFactory.createParameter(className, elementFactory.createType(psiClass)));
-        for (PsiField psiField : psiFields) {
-            of.getBody().add(
-                    elementFactory.createStatementFromText(
-                            "this." + psiField.getName() + "  = " + className + "." + psiField.getName() + ";\n",
-                            builderClass
-                    )
-            );
-        }
-        of.getBody().add(
-                elementFactory.createStatementFromText(
-                        "return this;\n",
-                        builderClass
-                )
-        );
-        builderClass.add(of);
-
-
-        PsiMethod buildMethod = elementFactory.createMethod("build", elementFactory.createType(psiClass));
-        buildMethod.getBody().add(
-                elementFactory.createStatementFromText(
-                        "return new " + elementFactory.createType(psiClass).getName() + "(this);",
-                        builderClass
-                )
-        );
-        builderClass.add(buildMethod);
-
-        return builderClass;
+        listener.phaseStarted(GenerationPhase.MERGE);
+        MemberMerger.merge(psiClass, members, listener);
+        listener.phaseFinished(GenerationPhase.MERGE);
     }
 
-    private static PsiMethod createConstructor(boolean checkForNullsInConstructor, PsiClass psiClass, List<PsiField> psiFields, PsiClass builderClass, PsiElementFactory elementFactory, JavaCodeStyleManager codeStyleManager) {
-        PsiMethod constructor = elementFactory.createConstructor();
-
-        constructor.getModifierList().setModifierProperty(PsiModifier.PUBLIC, false);
-        constructor.getModifierList().setModifierProperty(PsiModifier.PRIVATE, true);
-
-        constructor.getParameterList().add(
-                elementFactory.createParameter("builder", elementFactory.createType(builderClass))
-        );
-
-        for (PsiField psiField : psiFields) {
-            final boolean fieldNonNull = isFieldNonNull(psiField);
-
-            StringBuilder sb = new StringBuilder();
-
-            sb.append("this.");
-            sb.append(psiField.getName());
-            sb.append(" = ");
-            if (checkForNullsInConstructor) {
-                if (fieldNonNull || psiField.getType() instanceof PsiPrimitiveType) {
-                    sb.append("java.util.Objects.requireNonNull(");
-                }
-            }
-
-            sb.append("builder.");
-            sb.append(psiField.getName());
-
-            if (checkForNullsInConstructor) {
-                if (fieldNonNull || psiField.getType() instanceof PsiPrimitiveType) {
-                    sb.append(", \"");
-                    sb.append(psiField.getName());
-                    sb.append("\")");
-                }
-            }
-            sb.append(";\n");
-
-            PsiStatement statementFromText = elementFactory.createStatementFromText(
-                    sb.toString(), psiClass
-            );
-
-            PsiElement psiElement = codeStyleManager.shortenClassReferences(statementFromText);
-
-            constructor.getBody().add(psiElement);
+    private static void createParametersAreNonNullByDefaultAnnotation(PsiClass psiClass, PsiElementFactory elementFactory, JavaCodeStyleManager codeStyleManager, GenerationListener listener) {
+        if (psiClass.getModifierList().findAnnotation(PARAMETERS_ARE_NONNULL_BY_DEFAULT_ANNOTATION_QUALIFIED_NAME) != null) {
+            return;
         }
-        return constructor;
-    }
 
-    private static void createParametersAreNonNullByDefaultAnnotation(PsiClass psiClass, PsiElementFactory elementFactory, JavaCodeStyleManager codeStyleManager) {
-        PsiAnnotation annotation = elementFactory.createAnnotationFromText(
-                PARAMETERS_ARE_NONNULL_BY_DEFAULT_ANNOTATION, psiClass
+        PsiElement psiElement = createAnnotation(
+                psiClass, PARAMETERS_ARE_NONNULL_BY_DEFAULT_ANNOTATION, elementFactory, codeStyleManager, listener
         );
-        PsiElement psiElement = codeStyleManager.shortenClassReferences(annotation);
         psiClass.getModifierList().addBefore(psiElement, psiClass.getModifierList().getFirstChild());
-    }
-
-    private static boolean isFieldNonNull(PsiField psiField) {
-        for (PsiAnnotation annotation : psiField.getAnnotations()) {
-            if (NONNULL_ANNOTATION_QUALIFIED_NAME.equals(annotation.getQualifiedName())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static void deleteNonNullAnnotation(PsiField psiField) {
-        for (PsiAnnotation annotation : psiField.getAnnotations()) {
-            if (NONNULL_ANNOTATION_QUALIFIED_NAME.equals(annotation.getQualifiedName())) {
-                annotation.delete();
-            }
-        }
-    }
-
-    private static void deleteNullableAnnotation(PsiField psiField) {
-        for (PsiAnnotation annotation : psiField.getAnnotations()) {
-            if (NULLABLE_ANNOTATION_QUALIFIED_NAME.equals(annotation.getQualifiedName())) {
-                annotation.delete();
-            }
-        }
-    }
-
-    private static boolean isFieldNullable(PsiField psiField) {
-        for (PsiAnnotation annotation : psiField.getAnnotations()) {
-            if (NULLABLE_ANNOTATION_QUALIFIED_NAME.equals(annotation.getQualifiedName())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static String makeFirstLetterUpperCase(String str) {
-        return str.substring(0, 1).toUpperCase() + str.substring(1);
-    }
-
-    private static String makeFirstLetterLowerCase(String str) {
-        return str.substring(0, 1).toLowerCase() + str.substring(1);
+        listener.elementInserted();
     }
 }
@@ -0,0 +1,113 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BuilderPlan {
+
+    private final String className;
+    private final List<FieldDescriptor> fields;
+    private final GenerationSettings settings;
+    private final boolean allFieldsHaveAnnotations;
+    private final boolean collectionCopyFactoriesAvailable;
+    private final Set<String> nestedTypeNames;
+    private final boolean allFieldsConstructorDeclared;
+
+    private BuilderPlan(Builder builder) {
+        this.className = builder.className;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(builder.fields));
+        this.settings = builder.settings;
+        this.allFieldsHaveAnnotations = builder.allFieldsHaveAnnotations;
+        this.collectionCopyFactoriesAvailable = builder.collectionCopyFactoriesAvailable;
+        this.nestedTypeNames = Collections.unmodifiableSet(new LinkedHashSet<>(builder.nestedTypeNames));
+        this.allFieldsConstructorDeclared = builder.allFieldsConstructorDeclared;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public List<FieldDescriptor> getFields() {
+        return fields;
+    }
+
+    public GenerationSettings getSettings() {
+        return settings;
+    }
+
+    public boolean areAllFieldsHaveAnnotations() {
+        return allFieldsHaveAnnotations;
+    }
+
+    public boolean areCollectionCopyFactoriesAvailable() {
+        return collectionCopyFactoriesAvailable;
+    }
+
+    public Set<String> getNestedTypeNames() {
+        return nestedTypeNames;
+    }
+
+    public boolean isAllFieldsConstructorDeclared() {
+        return allFieldsConstructorDeclared;
+    }
+
+    public static class Builder {
+
+        private String className;
+        private final List<FieldDescriptor> fields = new ArrayList<>();
+        private GenerationSettings settings;
+        private boolean allFieldsHaveAnnotations;
+        private boolean collectionCopyFactoriesAvailable;
+        private final Set<String> nestedTypeNames = new LinkedHashSet<>();
+        private boolean allFieldsConstructorDeclared;
+
+        private Builder() {
+        }
+
+        public Builder setClassName(String className) {
+            this.className = className;
+            return this;
+        }
+
+        public Builder addField(FieldDescriptor field) {
+            this.fields.add(field);
+            return this;
+        }
+
+        public Builder setSettings(GenerationSettings settings) {
+            this.settings = settings;
+            return this;
+        }
+
+        public Builder setAllFieldsHaveAnnotations(boolean allFieldsHaveAnnotations) {
+            this.allFieldsHaveAnnotations = allFieldsHaveAnnotations;
+            return this;
+        }
+
+        public Builder setCollectionCopyFactoriesAvailable(boolean collectionCopyFactoriesAvailable) {
+            this.collectionCopyFactoriesAvailable = collectionCopyFactoriesAvailable;
+            return this;
+        }
+
+        public Builder addNestedTypeName(String nestedTypeName) {
+            this.nestedTypeNames.add(nestedTypeName);
+            return this;
+        }
+
+        public Builder setAllFieldsConstructorDeclared(boolean allFieldsConstructorDeclared) {
+            this.allFieldsConstructorDeclared = allFieldsConstructorDeclared;
+            return this;
+        }
+
+        public BuilderPlan build() {
+            return new BuilderPlan(this);
+        }
+    }
+}
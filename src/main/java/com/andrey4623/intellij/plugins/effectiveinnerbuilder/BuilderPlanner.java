@@ -0,0 +1,168 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.pom.java.LanguageLevel;
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWildcardType;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BuilderPlanner {
+
+    private static final String BUILDER_CLASS_NAME = "Builder";
+
+    private BuilderPlanner() {
+    }
+
+    public static BuilderPlan plan(PsiClass psiClass, GenerationSettings settings, GenerationListener listener) {
+        listener.phaseStarted(GenerationPhase.PLAN);
+        final BuilderPlan plan = plan(psiClass, settings);
+        listener.phaseFinished(GenerationPhase.PLAN);
+        return plan;
+    }
+
+    public static BuilderPlan plan(PsiClass psiClass, GenerationSettings settings) {
+        final BuilderPlan.Builder builder = BuilderPlan.builder()
+                .setClassName(psiClass.getName())
+                .setSettings(settings)
+                .setCollectionCopyFactoriesAvailable(PsiUtil.getLanguageLevel(psiClass).isAtLeast(LanguageLevel.JDK_10));
+
+        final NullnessTable nullnessTable = NullnessResolver.getTable(psiClass);
+        final int annotationsMask = NullnessAnnotations.toMask(settings.getRecognizedNullnessAnnotations());
+
+        for (String nestedTypeName : getNestedTypeNames(psiClass)) {
+            builder.addNestedTypeName(nestedTypeName);
+        }
+
+        final List<PsiField> psiFields = getFields(psiClass);
+        builder.setAllFieldsConstructorDeclared(isAllFieldsConstructorDeclared(psiClass, psiFields));
+
+        boolean allFieldsHaveAnnotations = true;
+
+        for (PsiField psiField : psiFields) {
+            final FieldDescriptor field = describe(
+                    psiField, nullnessTable.getNullness(psiField.getName(), annotationsMask), settings
+            );
+
+            if (!field.isPrimitive() && field.getNullness() == Nullness.UNKNOWN) {
+                allFieldsHaveAnnotations = false;
+            }
+
+            builder.addField(field);
+        }
+
+        return builder
+                .setAllFieldsHaveAnnotations(allFieldsHaveAnnotations)
+                .build();
+    }
+
+    static List<PsiField> getFields(PsiClass psiClass) {
+        List<PsiField> psiFields = new ArrayList<>();
+
+        for (PsiField field : psiClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC)
+                    && !BuilderRenderer.CACHED_HASH_CODE.equals(field.getName())) {
+                psiFields.add(field);
+            }
+        }
+        return psiFields;
+    }
+
+    private static boolean isAllFieldsConstructorDeclared(PsiClass psiClass, List<PsiField> psiFields) {
+        final PsiMethod generatedConstructor = GeneratedMembers.findCanonicalConstructor(psiClass);
+
+        for (PsiMethod constructor : psiClass.getConstructors()) {
+            if (!constructor.equals(generatedConstructor) && hasParameterTypes(constructor, psiFields)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasParameterTypes(PsiMethod constructor, List<PsiField> psiFields) {
+        final PsiParameter[] parameters = constructor.getParameterList().getParameters();
+        if (parameters.length != psiFields.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < parameters.length; i++) {
+            final String parameterType = TypeConversionUtil.erasure(parameters[i].getType()).getCanonicalText();
+            final String fieldType = TypeConversionUtil.erasure(psiFields.get(i).getType()).getCanonicalText();
+            if (!parameterType.equals(fieldType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> getNestedTypeNames(PsiClass psiClass) {
+        final Set<String> generatedStages = new HashSet<>();
+        final PsiClass builderClass = psiClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+        if (builderClass != null) {
+            for (PsiClassType stage : builderClass.getImplementsListTypes()) {
+                generatedStages.add(stage.getClassName());
+            }
+        }
+
+        final Set<String> result = new HashSet<>();
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            final String name = innerClass.getName();
+            if (name != null && !name.equals(BUILDER_CLASS_NAME) && !generatedStages.contains(name)) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    private static FieldDescriptor describe(PsiField psiField, Nullness nullness, GenerationSettings settings) {
+        final PsiType type = psiField.getType();
+        final boolean primitive = type instanceof PsiPrimitiveType;
+
+        final boolean annotationMissing = settings.ensureAllFieldsHaveAnnotations()
+                && !primitive
+                && nullness == Nullness.UNKNOWN;
+
+        final FieldDescriptor.Builder builder = FieldDescriptor.builder()
+                .setName(psiField.getName())
+                .setType(type.getCanonicalText())
+                .setBoxedType(primitive ? ((PsiPrimitiveType) type).getBoxedTypeName() : type.getCanonicalText())
+                .setPrimitive(primitive)
+                .setNullness(annotationMissing ? Nullness.NONNULL : nullness)
+                .setAnnotationMissing(annotationMissing);
+
+        if (type instanceof PsiClassType) {
+            final PsiClass psiClass = ((PsiClassType) type).resolve();
+            if (psiClass != null) {
+                builder.setCollectionKind(CollectionKind.of(psiClass.getQualifiedName()))
+                        .setEnumType(psiClass.isEnum());
+            }
+            for (PsiType parameter : ((PsiClassType) type).getParameters()) {
+                builder.addTypeArgument(getTypeArgument(parameter));
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static String getTypeArgument(PsiType parameter) {
+        if (parameter instanceof PsiWildcardType) {
+            final PsiWildcardType wildcardType = (PsiWildcardType) parameter;
+            return wildcardType.isBounded()
+                    ? wildcardType.getBound().getCanonicalText()
+                    : CommonClassNames.JAVA_LANG_OBJECT;
+        }
+        return parameter.getCanonicalText();
+    }
+}
@@ -0,0 +1,1125 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+public class BuilderRenderer {
+
+    static final String NONNULL_ANNOTATION = "@javax.annotation.Nonnull";
+    static final String NULLABLE_ANNOTATION = "@javax.annotation.Nullable";
+
+    private static final String REQUIRED_FIELDS = "REQUIRED_FIELDS_";
+    private static final String SET_FIELDS = "setFields";
+    private static final String OWNED_COLLECTIONS = "ownedCollections";
+    private static final String BUILD_STAGE = "BuildStage";
+    private static final String STAGE_SUFFIX = "Stage";
+
+    static final String CACHED_HASH_CODE = "cachedHashCode";
+    static final String COPIED_FROM = "copiedFrom";
+    static final String GENERATED_MARKER = "// @generated";
+
+    private static final int MAX_CONSTRUCTOR_PARAMETER_SLOTS = 254;
+    private static final int ESTIMATED_REFERENCE_LENGTH = 16;
+
+    private BuilderRenderer() {
+    }
+
+    public static String render(BuilderPlan plan) {
+        final StringBuilder sb = new StringBuilder();
+
+        if (plan.getSettings().generateGetters()) {
+            renderGetters(sb, plan);
+        }
+
+        if (plan.getSettings().generateBuilder()) {
+            if (isStaged(plan)) {
+                renderStages(sb, plan);
+            }
+            renderBuilderMethod(sb, plan);
+            if (plan.getSettings().generateThreadLocalBuilder()) {
+                renderReusableBuilderMethod(sb, plan);
+            }
+            renderBuilderClass(sb, plan);
+            renderConstructor(sb, plan);
+            if (isGeneratingBinaryCodec(plan)) {
+                BinaryCodecRenderer.renderWriteTo(sb, plan);
+            }
+            if (plan.getSettings().internInstances()) {
+                renderInternCache(sb, plan);
+            }
+        }
+
+        if (isGeneratingEquals(plan)) {
+            renderEquals(sb, plan);
+            renderHashCode(sb, plan);
+            renderToString(sb, plan);
+        }
+
+        return sb.toString();
+    }
+
+    private static void renderGetters(StringBuilder sb, BuilderPlan plan) {
+        for (FieldDescriptor field : plan.getFields()) {
+            renderMarker(sb);
+            if (!field.isPrimitive()) {
+                if (field.isNullable()) {
+                    sb.append(NULLABLE_ANNOTATION).append('\n');
+                } else if (field.isNonNull()) {
+                    sb.append(NONNULL_ANNOTATION).append('\n');
+                }
+            }
+
+            sb.append("public ").append(field.getType()).append(" get").append(makeFirstLetterUpperCase(field.getName()))
+                    .append("() {\n");
+            sb.append("return ").append(field.getName()).append(";\n");
+            sb.append("}\n\n");
+        }
+    }
+
+    private static void renderStages(StringBuilder sb, BuilderPlan plan) {
+        final List<FieldDescriptor> requiredFields = getRequiredFields(plan);
+        final Map<String, String> stageNames = getStageNames(plan);
+
+        for (int i = 0; i < requiredFields.size(); i++) {
+            final FieldDescriptor field = requiredFields.get(i);
+            final String nextStage = i + 1 < requiredFields.size()
+                    ? stageNames.get(requiredFields.get(i + 1).getName())
+                    : BUILD_STAGE;
+
+            renderMarker(sb);
+            sb.append("public interface ").append(stageNames.get(field.getName())).append(" {\n");
+            renderStageSetter(sb, plan, field, nextStage);
+            sb.append("}\n\n");
+        }
+
+        renderMarker(sb);
+        sb.append("public interface ").append(BUILD_STAGE).append(" {\n");
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!isRequired(plan, field)) {
+                renderStageSetter(sb, plan, field, BUILD_STAGE);
+            }
+            if (isAccumulated(plan, field)) {
+                renderAccumulatorDeclarations(sb, field, BUILD_STAGE);
+            }
+        }
+        renderMarker(sb);
+        sb.append(plan.getClassName()).append(" build();\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderStageSetter(StringBuilder sb, BuilderPlan plan, FieldDescriptor field, String nextStage) {
+        renderMarker(sb);
+        sb.append(nextStage).append(" set").append(makeFirstLetterUpperCase(field.getName())).append('(');
+        renderParameter(sb, plan, field);
+        sb.append(");\n");
+    }
+
+    private static void renderBuilderMethod(StringBuilder sb, BuilderPlan plan) {
+        renderMarker(sb);
+        sb.append("public static ").append(getFirstStage(plan)).append(" builder() {\n");
+        sb.append("return new Builder();\n");
+        sb.append("}\n\n");
+
+        if (isStaged(plan)) {
+            final String instanceName = makeFirstLetterLowerCase(plan.getClassName());
+
+            renderMarker(sb);
+            sb.append("public static ").append(BUILD_STAGE).append(" builder(").append(plan.getClassName())
+                    .append(' ').append(instanceName).append(") {\n");
+            sb.append("return new Builder().of(").append(instanceName).append(");\n");
+            sb.append("}\n\n");
+        }
+    }
+
+    private static void renderReusableBuilderMethod(StringBuilder sb, BuilderPlan plan) {
+        renderMarker(sb);
+        sb.append("private static final ThreadLocal<Builder> REUSABLE_BUILDER = ThreadLocal.withInitial(Builder::new);\n\n");
+
+        renderMarker(sb);
+        sb.append("public static ").append(getFirstStage(plan)).append(" reusableBuilder() {\n");
+        sb.append("return REUSABLE_BUILDER.get().reset();\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderBuilderClass(StringBuilder sb, BuilderPlan plan) {
+        final boolean trackSetFields = isTrackingSetFields(plan);
+        final int requiredFieldCount = trackSetFields ? countRequiredFields(plan) : 0;
+        final Map<String, Integer> accumulatedIndexes = getAccumulatedIndexes(plan);
+
+        renderMarker(sb);
+        sb.append("public static class Builder");
+        if (isStaged(plan)) {
+            final Map<String, String> stageNames = getStageNames(plan);
+
+            sb.append(" implements ");
+            for (FieldDescriptor field : getRequiredFields(plan)) {
+                sb.append(stageNames.get(field.getName())).append(", ");
+            }
+            sb.append(BUILD_STAGE);
+        }
+        sb.append(" {\n\n");
+
+        for (int word = 0; word < getWordCount(requiredFieldCount); word++) {
+            renderMarker(sb);
+            sb.append("private static final long ").append(REQUIRED_FIELDS).append(word).append(" = ")
+                    .append(toHex(getRequiredMask(requiredFieldCount, word))).append(";\n");
+        }
+        for (int word = 0; word < getWordCount(requiredFieldCount); word++) {
+            renderMarker(sb);
+            sb.append("private long ").append(SET_FIELDS).append(word).append(";\n");
+        }
+        for (int word = 0; word < getWordCount(accumulatedIndexes.size()); word++) {
+            renderMarker(sb);
+            sb.append("private long ").append(OWNED_COLLECTIONS).append(word).append(";\n");
+        }
+        if (requiredFieldCount > 0 || !accumulatedIndexes.isEmpty()) {
+            sb.append('\n');
+        }
+        if (isTrackingCopiedFrom(plan)) {
+            renderMarker(sb);
+            sb.append("private ").append(plan.getClassName()).append(' ').append(COPIED_FROM).append(";\n\n");
+        }
+
+        renderMarker(sb);
+        sb.append("private Builder() {\n");
+        sb.append("}\n\n");
+
+        final Map<String, Integer> requiredIndexes = trackSetFields ? getRequiredIndexes(plan) : Collections.emptyMap();
+        for (FieldDescriptor field : getLayoutOrder(plan, f -> getBuilderFieldType(plan, f))) {
+            renderMarker(sb);
+            sb.append("private ").append(getBuilderFieldType(plan, field)).append(' ').append(field.getName()).append(";\n\n");
+
+            renderMarker(sb);
+            sb.append("public Builder set").append(makeFirstLetterUpperCase(field.getName())).append('(');
+            renderParameter(sb, plan, field);
+            sb.append(") {\n");
+            sb.append("this.").append(field.getName()).append(" = ").append(field.getName()).append(";\n");
+            if (isAccumulated(plan, field)) {
+                renderReleaseOwnership(sb, accumulatedIndexes.get(field.getName()));
+            }
+            if (trackSetFields && isRequired(plan, field)) {
+                renderMarkSet(sb, field, requiredIndexes.get(field.getName()));
+            }
+            sb.append("return this;\n");
+            sb.append("}\n\n");
+
+            if (isAccumulated(plan, field)) {
+                renderAccumulators(sb, field, accumulatedIndexes.get(field.getName()));
+            }
+        }
+
+        final String instanceName = makeFirstLetterLowerCase(plan.getClassName());
+
+        renderMarker(sb);
+        sb.append("public Builder of(").append(plan.getClassName()).append(' ').append(instanceName).append(") {\n");
+        for (FieldDescriptor field : plan.getFields()) {
+            sb.append("this.").append(field.getName()).append(" = ").append(instanceName).append('.')
+                    .append(field.getName()).append(";\n");
+        }
+        for (int word = 0; word < getWordCount(requiredFieldCount); word++) {
+            sb.append("this.").append(SET_FIELDS).append(word).append(" = ").append(REQUIRED_FIELDS).append(word)
+                    .append(";\n");
+        }
+        for (int word = 0; word < getWordCount(accumulatedIndexes.size()); word++) {
+            sb.append("this.").append(OWNED_COLLECTIONS).append(word).append(" = 0L;\n");
+        }
+        if (isTrackingCopiedFrom(plan)) {
+            sb.append("this.").append(COPIED_FROM).append(" = ").append(instanceName).append(";\n");
+        }
+        sb.append("return this;\n");
+        sb.append("}\n\n");
+
+        if (plan.getSettings().generateResetMethod() || plan.getSettings().generateThreadLocalBuilder()) {
+            renderResetMethod(sb, plan, requiredFieldCount, accumulatedIndexes);
+        }
+
+        if (isGeneratingBinaryCodec(plan)) {
+            BinaryCodecRenderer.renderReadFrom(sb, plan);
+        }
+
+        renderMarker(sb);
+        sb.append("public ").append(plan.getClassName()).append(" build() {\n");
+        if (requiredFieldCount > 0) {
+            renderRequiredFieldsCheck(sb, requiredFieldCount);
+        }
+        sb.append("return ");
+        if (plan.getSettings().internInstances()) {
+            sb.append("intern(");
+        }
+        sb.append("new ").append(plan.getClassName()).append('(');
+        if (isUsingCanonicalConstructor(plan)) {
+            boolean first = true;
+            for (FieldDescriptor field : plan.getFields()) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                renderValue(sb, plan, field, field.getName(), COPIED_FROM, isBuilderFieldPrimitive(plan, field), false);
+                first = false;
+            }
+        } else {
+            sb.append("this");
+        }
+        sb.append(')');
+        if (plan.getSettings().internInstances()) {
+            sb.append(')');
+        }
+        sb.append(";\n");
+        sb.append("}\n");
+
+        if (requiredFieldCount > 0) {
+            renderMissingFields(sb, plan);
+        }
+
+        sb.append("}\n\n");
+    }
+
+    private static void renderResetMethod(
+            StringBuilder sb,
+            BuilderPlan plan,
+            int requiredFieldCount,
+            Map<String, Integer> accumulatedIndexes
+    ) {
+        renderMarker(sb);
+        sb.append("public Builder reset() {\n");
+        for (FieldDescriptor field : plan.getFields()) {
+            if (isAccumulated(plan, field) && !field.isNullable()) {
+                final int accumulatedIndex = accumulatedIndexes.get(field.getName());
+
+                sb.append("if ((").append(getOwnedWord(accumulatedIndex)).append(" & ")
+                        .append(getOwnedBit(accumulatedIndex)).append(") != 0) {\n");
+                sb.append("this.").append(field.getName()).append(".clear();\n");
+                sb.append("} else {\n");
+                sb.append("this.").append(field.getName()).append(" = null;\n");
+                sb.append("}\n");
+            } else {
+                sb.append("this.").append(field.getName()).append(" = ")
+                        .append(getDefaultValue(getBuilderFieldType(plan, field))).append(";\n");
+                if (isAccumulated(plan, field)) {
+                    renderReleaseOwnership(sb, accumulatedIndexes.get(field.getName()));
+                }
+            }
+        }
+        for (int word = 0; word < getWordCount(requiredFieldCount); word++) {
+            sb.append("this.").append(SET_FIELDS).append(word).append(" = 0L;\n");
+        }
+        if (isTrackingCopiedFrom(plan)) {
+            sb.append("this.").append(COPIED_FROM).append(" = null;\n");
+        }
+        sb.append("return this;\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderAccumulators(StringBuilder sb, FieldDescriptor field, int accumulatedIndex) {
+        final String name = "this." + field.getName();
+        final String implementation = field.getCollectionKind().getMutableImplementation();
+
+        renderAccumulatorHeader(sb, field, "Builder");
+        sb.append(" {\n");
+        renderTakeOwnership(sb, field, accumulatedIndex, "");
+        if (field.getCollectionKind() == CollectionKind.MAP) {
+            sb.append(name).append(".put(key, value);\n");
+        } else {
+            sb.append(name).append(".add(element);\n");
+        }
+        sb.append("return this;\n");
+        sb.append("}\n\n");
+
+        renderAddAllHeader(sb, field, "Builder");
+        sb.append(" {\n");
+        renderTakeOwnership(sb, field, accumulatedIndex, "");
+        if (field.getCollectionKind() == CollectionKind.MAP) {
+            sb.append(name).append(".putAll(elements);\n");
+        } else {
+            sb.append(name).append(".addAll(elements);\n");
+        }
+        sb.append("return this;\n");
+        sb.append("}\n\n");
+
+        renderExpectedSizeHeader(sb, field, "Builder");
+        sb.append(" {\n");
+        if (field.getCollectionKind() == CollectionKind.LIST) {
+            renderTakeOwnership(sb, field, accumulatedIndex, "expectedSize");
+            sb.append("((").append(getMutableType(field)).append(") ").append(name)
+                    .append(").ensureCapacity(expectedSize);\n");
+        } else {
+            final String word = getOwnedWord(accumulatedIndex);
+            final String bit = getOwnedBit(accumulatedIndex);
+
+            sb.append("if ((").append(word).append(" & ").append(bit).append(") == 0 || ").append(name)
+                    .append(".isEmpty()) {\n");
+            sb.append("final ").append(getMutableType(field)).append(" resized = new ").append(implementation)
+                    .append("<>((int) (expectedSize / 0.75f) + 1);\n");
+            sb.append("if (").append(name).append(" != null) {\n");
+            sb.append("resized.").append(field.getCollectionKind() == CollectionKind.MAP ? "putAll" : "addAll")
+                    .append('(').append(name).append(");\n");
+            sb.append("}\n");
+            sb.append(name).append(" = resized;\n");
+            sb.append(word).append(" |= ").append(bit).append(";\n");
+            sb.append("}\n");
+        }
+        sb.append("return this;\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderTakeOwnership(
+            StringBuilder sb,
+            FieldDescriptor field,
+            int accumulatedIndex,
+            String emptyCapacity
+    ) {
+        final String name = "this." + field.getName();
+        final String implementation = field.getCollectionKind().getMutableImplementation();
+        final String word = getOwnedWord(accumulatedIndex);
+        final String bit = getOwnedBit(accumulatedIndex);
+
+        sb.append("if ((").append(word).append(" & ").append(bit).append(") == 0) {\n");
+        sb.append(name).append(" = ").append(name).append(" == null ? new ").append(implementation).append("<>(")
+                .append(emptyCapacity).append(") : new ").append(implementation).append("<>(").append(name)
+                .append(");\n");
+        sb.append(word).append(" |= ").append(bit).append(";\n");
+        sb.append("}\n");
+    }
+
+    private static void renderReleaseOwnership(StringBuilder sb, int accumulatedIndex) {
+        sb.append(getOwnedWord(accumulatedIndex)).append(" &= ~").append(getOwnedBit(accumulatedIndex)).append(";\n");
+    }
+
+    private static String getOwnedWord(int accumulatedIndex) {
+        return "this." + OWNED_COLLECTIONS + accumulatedIndex / Long.SIZE;
+    }
+
+    private static String getOwnedBit(int accumulatedIndex) {
+        return toHex(1L << (accumulatedIndex % Long.SIZE));
+    }
+
+    private static String getMutableType(FieldDescriptor field) {
+        return field.getCollectionKind().getMutableImplementation()
+                + '<' + String.join(", ", field.getTypeArguments()) + '>';
+    }
+
+    private static void renderAccumulatorDeclarations(StringBuilder sb, FieldDescriptor field, String returnType) {
+        renderAccumulatorHeader(sb, field, returnType);
+        sb.append(";\n");
+        renderAddAllHeader(sb, field, returnType);
+        sb.append(";\n");
+        renderExpectedSizeHeader(sb, field, returnType);
+        sb.append(";\n");
+    }
+
+    private static void renderAccumulatorHeader(StringBuilder sb, FieldDescriptor field, String returnType) {
+        renderMarker(sb);
+        final List<String> typeArguments = field.getTypeArguments();
+
+        if (field.getCollectionKind() == CollectionKind.MAP) {
+            sb.append(getVisibility(returnType)).append(returnType).append(" put")
+                    .append(makeFirstLetterUpperCase(field.getName())).append('(')
+                    .append(typeArguments.get(0)).append(" key, ").append(typeArguments.get(1)).append(" value)");
+        } else {
+            sb.append(getVisibility(returnType)).append(returnType).append(" add")
+                    .append(makeFirstLetterUpperCase(field.getName())).append('(')
+                    .append(typeArguments.get(0)).append(" element)");
+        }
+    }
+
+    private static void renderAddAllHeader(StringBuilder sb, FieldDescriptor field, String returnType) {
+        renderMarker(sb);
+        final List<String> typeArguments = field.getTypeArguments();
+
+        if (field.getCollectionKind() == CollectionKind.MAP) {
+            sb.append(getVisibility(returnType)).append(returnType).append(" putAll")
+                    .append(makeFirstLetterUpperCase(field.getName())).append("(java.util.Map<? extends ")
+                    .append(typeArguments.get(0)).append(", ? extends ").append(typeArguments.get(1))
+                    .append("> elements)");
+        } else {
+            sb.append(getVisibility(returnType)).append(returnType).append(" addAll")
+                    .append(makeFirstLetterUpperCase(field.getName())).append("(java.util.Collection<? extends ")
+                    .append(typeArguments.get(0)).append("> elements)");
+        }
+    }
+
+    private static void renderExpectedSizeHeader(StringBuilder sb, FieldDescriptor field, String returnType) {
+        renderMarker(sb);
+        sb.append(getVisibility(returnType)).append(returnType).append(" expected")
+                .append(makeFirstLetterUpperCase(field.getName())).append("Size(int expectedSize)");
+    }
+
+    private static String getVisibility(String returnType) {
+        return BUILD_STAGE.equals(returnType) ? "" : "public ";
+    }
+
+    private static void renderMarkSet(StringBuilder sb, FieldDescriptor field, int requiredIndex) {
+        final String word = SET_FIELDS + requiredIndex / Long.SIZE;
+        final String bit = toHex(1L << (requiredIndex % Long.SIZE));
+
+        if (field.isPrimitive()) {
+            sb.append(word).append(" |= ").append(bit).append(";\n");
+        } else {
+            sb.append("if (").append(field.getName()).append(" != null) {\n");
+            sb.append(word).append(" |= ").append(bit).append(";\n");
+            sb.append("} else {\n");
+            sb.append(word).append(" &= ~").append(bit).append(";\n");
+            sb.append("}\n");
+        }
+    }
+
+    private static void renderRequiredFieldsCheck(StringBuilder sb, int requiredFieldCount) {
+        sb.append("if (");
+        for (int word = 0; word < getWordCount(requiredFieldCount); word++) {
+            if (word > 0) {
+                sb.append(" || ");
+            }
+            sb.append(SET_FIELDS).append(word).append(" != ").append(REQUIRED_FIELDS).append(word);
+        }
+        sb.append(") {\n");
+        sb.append("throw new IllegalStateException(\"Missing required fields: \" + missingFields());\n");
+        sb.append("}\n");
+    }
+
+    private static void renderMissingFields(StringBuilder sb, BuilderPlan plan) {
+        sb.append('\n');
+        renderMarker(sb);
+        sb.append("private String missingFields() {\n");
+        sb.append("java.util.StringJoiner missingFields = new java.util.StringJoiner(\", \");\n");
+
+        int requiredIndex = 0;
+        for (FieldDescriptor field : plan.getFields()) {
+            if (isRequired(plan, field)) {
+                sb.append("if ((").append(SET_FIELDS).append(requiredIndex / Long.SIZE).append(" & ")
+                        .append(toHex(1L << (requiredIndex % Long.SIZE))).append(") == 0) {\n");
+                sb.append("missingFields.add(\"").append(field.getName()).append("\");\n");
+                sb.append("}\n");
+                requiredIndex++;
+            }
+        }
+
+        sb.append("return missingFields.toString();\n");
+        sb.append("}\n");
+    }
+
+    private static void renderConstructor(StringBuilder sb, BuilderPlan plan) {
+        if (isUsingCanonicalConstructor(plan)) {
+            renderCanonicalConstructor(sb, plan, plan.getSettings().checkForNullsInConstructor());
+            if (isGeneratingWithers(plan)) {
+                renderWithers(sb, plan);
+            }
+            return;
+        }
+
+        if (isGeneratingWithers(plan)) {
+            renderDelegatingConstructor(sb, plan);
+            renderCanonicalConstructor(sb, plan, false);
+            renderWithers(sb, plan);
+            return;
+        }
+
+        final boolean checkForNullsInConstructor = plan.getSettings().checkForNullsInConstructor()
+                && !isTrackingSetFields(plan);
+
+        renderMarker(sb);
+        sb.append("private ").append(plan.getClassName()).append("(Builder builder) {\n");
+
+        for (FieldDescriptor field : getLayoutOrder(plan, FieldDescriptor::getType)) {
+            sb.append("this.").append(field.getName()).append(" = ");
+            renderValue(
+                    sb,
+                    plan,
+                    field,
+                    "builder." + field.getName(),
+                    "builder." + COPIED_FROM,
+                    isBuilderFieldPrimitive(plan, field),
+                    checkForNullsInConstructor
+            );
+            sb.append(";\n");
+        }
+
+        sb.append("}\n\n");
+    }
+
+    private static void renderDelegatingConstructor(StringBuilder sb, BuilderPlan plan) {
+        final boolean checkForNullsInConstructor = plan.getSettings().checkForNullsInConstructor()
+                && !isTrackingSetFields(plan);
+
+        renderMarker(sb);
+        sb.append("private ").append(plan.getClassName()).append("(Builder builder) {\n");
+        sb.append("this(");
+
+        boolean first = true;
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            renderValue(
+                    sb,
+                    plan,
+                    field,
+                    "builder." + field.getName(),
+                    "builder." + COPIED_FROM,
+                    isBuilderFieldPrimitive(plan, field),
+                    checkForNullsInConstructor
+            );
+            first = false;
+        }
+
+        sb.append(");\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderCanonicalConstructor(StringBuilder sb, BuilderPlan plan, boolean validate) {
+        renderMarker(sb);
+        sb.append("private ").append(plan.getClassName()).append('(');
+
+        boolean first = true;
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(field.getType()).append(' ').append(field.getName());
+            first = false;
+        }
+
+        sb.append(") {\n");
+        for (FieldDescriptor field : getLayoutOrder(plan, FieldDescriptor::getType)) {
+            sb.append("this.").append(field.getName()).append(" = ");
+            if (validate && isRequired(plan, field) && !field.isPrimitive()) {
+                sb.append("java.util.Objects.requireNonNull(").append(field.getName())
+                        .append(", \"").append(field.getName()).append("\")");
+            } else {
+                sb.append(field.getName());
+            }
+            sb.append(";\n");
+        }
+        sb.append("}\n\n");
+    }
+
+    private static void renderWithers(StringBuilder sb, BuilderPlan plan) {
+        final boolean checkForNulls = plan.getSettings().checkForNullsInConstructor()
+                && !isUsingCanonicalConstructor(plan);
+
+        for (FieldDescriptor changed : plan.getFields()) {
+            renderMarker(sb);
+            sb.append("public ").append(plan.getClassName()).append(" with")
+                    .append(makeFirstLetterUpperCase(changed.getName())).append('(');
+            renderParameter(sb, plan, changed);
+            sb.append(") {\n");
+
+            if (!changed.getType().equals("float") && !changed.getType().equals("double")) {
+                sb.append("if (").append(changed.getName()).append(" == this.").append(changed.getName()).append(") {\n");
+                sb.append("return this;\n");
+                sb.append("}\n");
+            }
+
+            sb.append("return new ").append(plan.getClassName()).append('(');
+            boolean first = true;
+            for (FieldDescriptor field : plan.getFields()) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                if (field == changed) {
+                    renderValue(sb, plan, field, field.getName(), null, field.isPrimitive(), checkForNulls);
+                } else {
+                    sb.append("this.").append(field.getName());
+                }
+                first = false;
+            }
+            sb.append(");\n");
+            sb.append("}\n\n");
+        }
+    }
+
+    private static void renderInternCache(StringBuilder sb, BuilderPlan plan) {
+        final String className = plan.getClassName();
+
+        final String entryType = "<" + className + ", " + className + ">";
+
+        renderMarker(sb);
+        sb.append("private static final int INTERN_CACHE_MAX_SIZE = ").append(plan.getSettings().getInternCacheSize())
+                .append(";\n");
+        renderMarker(sb);
+        sb.append("private static final java.util.Map").append(entryType)
+                .append(" INTERN_CACHE = java.util.Collections.synchronizedMap(\n");
+        sb.append("new java.util.LinkedHashMap").append(entryType).append("(16, 0.75f, true) {\n");
+        sb.append("@Override\n");
+        sb.append("protected boolean removeEldestEntry(java.util.Map.Entry").append(entryType).append(" eldest) {\n");
+        sb.append("return size() > INTERN_CACHE_MAX_SIZE;\n");
+        sb.append("}\n");
+        sb.append("});\n");
+        renderMarker(sb);
+        sb.append("private static final java.util.concurrent.atomic.LongAdder INTERN_HITS = ")
+                .append("new java.util.concurrent.atomic.LongAdder();\n");
+        renderMarker(sb);
+        sb.append("private static final java.util.concurrent.atomic.LongAdder INTERN_MISSES = ")
+                .append("new java.util.concurrent.atomic.LongAdder();\n\n");
+
+        renderMarker(sb);
+        sb.append("private static ").append(className).append(" intern(").append(className).append(" instance) {\n");
+        sb.append("final ").append(className).append(" canonical = INTERN_CACHE.putIfAbsent(instance, instance);\n");
+        sb.append("if (canonical != null) {\n");
+        sb.append("INTERN_HITS.increment();\n");
+        sb.append("return canonical;\n");
+        sb.append("}\n\n");
+        sb.append("INTERN_MISSES.increment();\n");
+        sb.append("return instance;\n");
+        sb.append("}\n\n");
+
+        renderMarker(sb);
+        sb.append("public static long internHits() {\n");
+        sb.append("return INTERN_HITS.sum();\n");
+        sb.append("}\n\n");
+
+        renderMarker(sb);
+        sb.append("public static long internMisses() {\n");
+        sb.append("return INTERN_MISSES.sum();\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderEquals(StringBuilder sb, BuilderPlan plan) {
+        renderMarker(sb);
+        sb.append("@Override\n");
+        sb.append("public boolean equals(Object o) {\n");
+        sb.append("if (this == o) {\n");
+        sb.append("return true;\n");
+        sb.append("}\n");
+        sb.append("if (o == null || getClass() != o.getClass()) {\n");
+        sb.append("return false;\n");
+        sb.append("}\n\n");
+
+        sb.append("final ").append(plan.getClassName()).append(" that = (").append(plan.getClassName()).append(") o;\n");
+        sb.append("if (this.").append(CACHED_HASH_CODE).append(" != 0 && that.").append(CACHED_HASH_CODE)
+                .append(" != 0 && this.").append(CACHED_HASH_CODE).append(" != that.").append(CACHED_HASH_CODE)
+                .append(") {\n");
+        sb.append("return false;\n");
+        sb.append("}\n");
+
+        sb.append("return ");
+        boolean first = true;
+        for (FieldDescriptor field : getPrimitivesFirst(plan)) {
+            if (!first) {
+                sb.append("\n&& ");
+            }
+            renderFieldEquals(sb, plan, field);
+            first = false;
+        }
+        if (first) {
+            sb.append("true");
+        }
+        sb.append(";\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderFieldEquals(StringBuilder sb, BuilderPlan plan, FieldDescriptor field) {
+        final String name = field.getName();
+
+        if (field.getType().equals("float")) {
+            sb.append("Float.compare(this.").append(name).append(", that.").append(name).append(") == 0");
+        } else if (field.getType().equals("double")) {
+            sb.append("Double.compare(this.").append(name).append(", that.").append(name).append(") == 0");
+        } else if (field.isPrimitive()) {
+            sb.append("this.").append(name).append(" == that.").append(name);
+        } else if (isArray(field)) {
+            sb.append("java.util.Arrays.equals(this.").append(name).append(", that.").append(name).append(')');
+        } else if (isNonNullEnforced(plan, field)) {
+            sb.append("this.").append(name).append(".equals(that.").append(name).append(')');
+        } else {
+            sb.append("java.util.Objects.equals(this.").append(name).append(", that.").append(name).append(')');
+        }
+    }
+
+    private static void renderHashCode(StringBuilder sb, BuilderPlan plan) {
+        renderMarker(sb);
+        sb.append("private transient int ").append(CACHED_HASH_CODE).append(";\n\n");
+
+        renderMarker(sb);
+        sb.append("@Override\n");
+        sb.append("public int hashCode() {\n");
+        sb.append("int result = this.").append(CACHED_HASH_CODE).append(";\n");
+        sb.append("if (result == 0) {\n");
+        sb.append("result = 1;\n");
+        for (FieldDescriptor field : plan.getFields()) {
+            sb.append("result = 31 * result + ");
+            renderFieldHashCode(sb, plan, field);
+            sb.append(";\n");
+        }
+        sb.append("this.").append(CACHED_HASH_CODE).append(" = result;\n");
+        sb.append("}\n");
+        sb.append("return result;\n");
+        sb.append("}\n\n");
+    }
+
+    private static void renderFieldHashCode(StringBuilder sb, BuilderPlan plan, FieldDescriptor field) {
+        final String name = field.getName();
+
+        if (field.isPrimitive()) {
+            sb.append(getSimpleName(field.getBoxedType())).append(".hashCode(this.").append(name).append(')');
+        } else if (isArray(field)) {
+            sb.append("java.util.Arrays.hashCode(this.").append(name).append(')');
+        } else if (isNonNullEnforced(plan, field)) {
+            sb.append("this.").append(name).append(".hashCode()");
+        } else {
+            sb.append("java.util.Objects.hashCode(this.").append(name).append(')');
+        }
+    }
+
+    private static void renderToString(StringBuilder sb, BuilderPlan plan) {
+        renderMarker(sb);
+        sb.append("@Override\n");
+        sb.append("public String toString() {\n");
+        sb.append("return new StringBuilder(").append(estimateToStringLength(plan)).append(")\n");
+
+        String prefix = plan.getClassName() + "{";
+        for (FieldDescriptor field : plan.getFields()) {
+            sb.append(".append(\"").append(prefix).append(field.getName()).append("=\")");
+            if (isArray(field)) {
+                sb.append(".append(java.util.Arrays.toString(this.").append(field.getName()).append("))\n");
+            } else {
+                sb.append(".append(this.").append(field.getName()).append(")\n");
+            }
+            prefix = ", ";
+        }
+        if (plan.getFields().isEmpty()) {
+            sb.append(".append(\"").append(prefix).append("\")\n");
+        }
+
+        sb.append(".append('}')\n");
+        sb.append(".toString();\n");
+        sb.append("}\n\n");
+    }
+
+    private static int estimateToStringLength(BuilderPlan plan) {
+        int result = plan.getClassName().length() + 2;
+        for (FieldDescriptor field : plan.getFields()) {
+            result += field.getName().length() + 1 + estimateValueLength(field.getType());
+        }
+        if (plan.getFields().size() > 1) {
+            result += 2 * (plan.getFields().size() - 1);
+        }
+        return result;
+    }
+
+    private static int estimateValueLength(String type) {
+        switch (type) {
+            case "boolean":
+                return 5;
+            case "byte":
+                return 4;
+            case "short":
+                return 6;
+            case "char":
+                return 1;
+            case "int":
+                return 11;
+            case "long":
+                return 20;
+            case "float":
+                return 15;
+            case "double":
+                return 24;
+            default:
+                return ESTIMATED_REFERENCE_LENGTH;
+        }
+    }
+
+    private static List<FieldDescriptor> getPrimitivesFirst(BuilderPlan plan) {
+        final List<FieldDescriptor> result = new ArrayList<>(plan.getFields().size());
+        for (FieldDescriptor field : plan.getFields()) {
+            if (field.isPrimitive()) {
+                result.add(field);
+            }
+        }
+        for (FieldDescriptor field : plan.getFields()) {
+            if (!field.isPrimitive()) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isArray(FieldDescriptor field) {
+        return field.getType().endsWith("[]");
+    }
+
+    private static String getSimpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    private static void renderParameter(StringBuilder sb, BuilderPlan plan, FieldDescriptor field) {
+        if (field.isNullable()) {
+            sb.append(NULLABLE_ANNOTATION).append(' ');
+        }
+        if (!plan.areAllFieldsHaveAnnotations() && field.isNonNull()) {
+            sb.append(NONNULL_ANNOTATION).append(' ');
+        }
+        sb.append(field.getType()).append(' ').append(field.getName());
+    }
+
+    private static void renderValue(
+            StringBuilder sb,
+            BuilderPlan plan,
+            FieldDescriptor field,
+            String source,
+            String copiedFrom,
+            boolean sourcePrimitive,
+            boolean checkForNulls
+    ) {
+        if (isAccumulated(plan, field)) {
+            renderImmutableCopy(sb, plan, field, source);
+            return;
+        }
+
+        final boolean requireNonNull = checkForNulls && isRequired(plan, field) && !sourcePrimitive;
+        final boolean wrapCollection = isGeneratingWithers(plan) && field.isCollection();
+
+        if (wrapCollection && copiedFrom != null) {
+            sb.append(copiedFrom).append(" != null && ").append(source).append(" == ").append(copiedFrom).append('.')
+                    .append(field.getName()).append(" ? ").append(source).append(" : ");
+        }
+        if (wrapCollection && !requireNonNull) {
+            sb.append(source).append(" == null ? null : ");
+        }
+        if (wrapCollection) {
+            sb.append(field.getCollectionKind().getUnmodifiableWrapper()).append('(');
+        }
+
+        if (requireNonNull) {
+            sb.append("java.util.Objects.requireNonNull(").append(source)
+                    .append(", \"").append(field.getName()).append("\")");
+        } else {
+            sb.append(source);
+        }
+
+        if (wrapCollection) {
+            sb.append(')');
+        }
+    }
+
+    private static void renderImmutableCopy(StringBuilder sb, BuilderPlan plan, FieldDescriptor field, String source) {
+        final CollectionKind kind = field.getCollectionKind();
+
+        sb.append(source).append(" == null ? ");
+        if (field.isNullable()) {
+            sb.append("null");
+        } else {
+            sb.append(kind.getEmptyFactory()).append("()");
+        }
+        sb.append(" : ");
+
+        if (plan.areCollectionCopyFactoriesAvailable()) {
+            sb.append(kind.getCopyFactory()).append('(').append(source).append(')');
+        } else {
+            sb.append(kind.getUnmodifiableWrapper()).append("(new ").append(kind.getMutableImplementation())
+                    .append("<>(").append(source).append("))");
+        }
+    }
+
+    private static String getBuilderFieldType(BuilderPlan plan, FieldDescriptor field) {
+        if (isAccumulated(plan, field)) {
+            return field.getCollectionKind().getQualifiedName()
+                    + '<' + String.join(", ", field.getTypeArguments()) + '>';
+        }
+        if (field.isPrimitive()
+                && plan.getSettings().checkForNullsInConstructor()
+                && !isTrackingSetFields(plan)
+                && !isStaged(plan)
+                && !isUsingCanonicalConstructor(plan)) {
+            return field.getBoxedType();
+        }
+        return field.getType();
+    }
+
+    private static boolean isBuilderFieldPrimitive(BuilderPlan plan, FieldDescriptor field) {
+        return field.isPrimitive() && getBuilderFieldType(plan, field).equals(field.getType());
+    }
+
+    private static String getDefaultValue(String type) {
+        switch (type) {
+            case "boolean":
+                return "false";
+            case "byte":
+            case "short":
+            case "char":
+            case "int":
+                return "0";
+            case "long":
+                return "0L";
+            case "float":
+                return "0F";
+            case "double":
+                return "0D";
+            default:
+                return "null";
+        }
+    }
+
+    static boolean isUsingCanonicalConstructor(BuilderPlan plan) {
+        return plan.getSettings().useCanonicalConstructor() && canDeclareCanonicalConstructor(plan);
+    }
+
+    private static boolean isTrackingCopiedFrom(BuilderPlan plan) {
+        if (!isGeneratingWithers(plan)) {
+            return false;
+        }
+
+        for (FieldDescriptor field : plan.getFields()) {
+            if (field.isCollection() && !isAccumulated(plan, field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isGeneratingWithers(BuilderPlan plan) {
+        return plan.getSettings().generateWithers() && canDeclareCanonicalConstructor(plan);
+    }
+
+    private static boolean canDeclareCanonicalConstructor(BuilderPlan plan) {
+        return !plan.getFields().isEmpty()
+                && getParameterSlots(plan) <= MAX_CONSTRUCTOR_PARAMETER_SLOTS
+                && !plan.isAllFieldsConstructorDeclared();
+    }
+
+    private static int getParameterSlots(BuilderPlan plan) {
+        int slots = 0;
+        for (FieldDescriptor field : plan.getFields()) {
+            slots += field.getType().equals("long") || field.getType().equals("double") ? 2 : 1;
+        }
+        return slots;
+    }
+
+    private static boolean isTrackingSetFields(BuilderPlan plan) {
+        return plan.getSettings().checkForNullsInConstructor()
+                && (plan.getSettings().trackSetFieldsInBitMask() || isUsingCanonicalConstructor(plan))
+                && !isStaged(plan);
+    }
+
+    private static boolean isGeneratingBinaryCodec(BuilderPlan plan) {
+        return plan.getSettings().generateBinaryCodec() && BinaryCodecRenderer.isSupported(plan);
+    }
+
+    private static boolean isGeneratingEquals(BuilderPlan plan) {
+        return plan.getSettings().generateEqualsAndHashCode()
+                || plan.getSettings().generateBuilder() && plan.getSettings().internInstances();
+    }
+
+    private static boolean isStaged(BuilderPlan plan) {
+        return plan.getSettings().generateStagedBuilder();
+    }
+
+    private static String getFirstStage(BuilderPlan plan) {
+        if (!isStaged(plan)) {
+            return "Builder";
+        }
+
+        final List<FieldDescriptor> requiredFields = getRequiredFields(plan);
+        return requiredFields.isEmpty() ? BUILD_STAGE : getStageNames(plan).get(requiredFields.get(0).getName());
+    }
+
+    private static Map<String, String> getStageNames(BuilderPlan plan) {
+        final Set<String> usedNames = new HashSet<>(plan.getNestedTypeNames());
+        usedNames.add(plan.getClassName());
+        usedNames.add("Builder");
+        usedNames.add(BUILD_STAGE);
+
+        final Map<String, String> result = new HashMap<>();
+        for (FieldDescriptor field : getRequiredFields(plan)) {
+            final String baseName = makeFirstLetterUpperCase(field.getName()) + STAGE_SUFFIX;
+
+            String name = baseName;
+            for (int suffix = 2; !usedNames.add(name); suffix++) {
+                name = baseName + suffix;
+            }
+            result.put(field.getName(), name);
+        }
+        return result;
+    }
+
+    private static List<FieldDescriptor> getRequiredFields(BuilderPlan plan) {
+        final List<FieldDescriptor> requiredFields = new ArrayList<>();
+        for (FieldDescriptor field : plan.getFields()) {
+            if (isRequired(plan, field)) {
+                requiredFields.add(field);
+            }
+        }
+        return requiredFields;
+    }
+
+    private static boolean isRequired(BuilderPlan plan, FieldDescriptor field) {
+        return (field.isNonNull() || field.isPrimitive()) && !isAccumulated(plan, field);
+    }
+
+    private static boolean isNonNullEnforced(BuilderPlan plan, FieldDescriptor field) {
+        return field.isNonNull()
+                && !field.isAnnotationMissing()
+                && plan.getSettings().generateBuilder()
+                && plan.getSettings().checkForNullsInConstructor();
+    }
+
+    private static boolean isAccumulated(BuilderPlan plan, FieldDescriptor field) {
+        return plan.getSettings().generateCollectionAccumulators()
+                && field.isCollection()
+                && field.getTypeArguments().size() == field.getCollectionKind().getTypeParameterCount();
+    }
+
+    private static Map<String, Integer> getRequiredIndexes(BuilderPlan plan) {
+        final Map<String, Integer> result = new HashMap<>();
+        for (FieldDescriptor field : plan.getFields()) {
+            if (isRequired(plan, field)) {
+                result.put(field.getName(), result.size());
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> getAccumulatedIndexes(BuilderPlan plan) {
+        final Map<String, Integer> result = new HashMap<>();
+        for (FieldDescriptor field : plan.getFields()) {
+            if (isAccumulated(plan, field)) {
+                result.put(field.getName(), result.size());
+            }
+        }
+        return result;
+    }
+
+    private static List<FieldDescriptor> getLayoutOrder(BuilderPlan plan, Function<FieldDescriptor, String> typeOf) {
+        return plan.getSettings().optimizeFieldLayout() ? FieldLayout.order(plan.getFields(), typeOf) : plan.getFields();
+    }
+
+    private static int countRequiredFields(BuilderPlan plan) {
+        int count = 0;
+        for (FieldDescriptor field : plan.getFields()) {
+            if (isRequired(plan, field)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int getWordCount(int bitCount) {
+        return (bitCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static long getRequiredMask(int requiredFieldCount, int word) {
+        final int bits = Math.min(Long.SIZE, requiredFieldCount - word * Long.SIZE);
+        return bits == Long.SIZE ? -1L : (1L << bits) - 1;
+    }
+
+    private static String toHex(long value) {
+        return "0x" + Long.toHexString(value) + "L";
+    }
+
+    static void renderMarker(StringBuilder sb) {
+        sb.append(GENERATED_MARKER).append('\n');
+    }
+
+    static String makeFirstLetterUpperCase(String str) {
+        return str.substring(0, 1).toUpperCase() + str.substring(1);
+    }
+
+    static String makeFirstLetterLowerCase(String str) {
+        return str.substring(0, 1).toLowerCase() + str.substring(1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.search.PackageScope;
+import org.jetbrains.annotations.NotNull;
+
+public class BulkActionListener extends AnAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(getScope(e) != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        final Project project = e.getProject();
+        final GlobalSearchScope scope = getScope(e);
+
+        if (project == null || scope == null) {
+            return;
+        }
+
+        final GeneratorOptions generatorOptions = new GeneratorOptions(project);
+        generatorOptions.show();
+
+        if (generatorOptions.isOK()) {
+            BulkGenerator.run(project, scope, generatorOptions.getSettings());
+        }
+    }
+
+    private static GlobalSearchScope getScope(AnActionEvent e) {
+        final Project project = e.getProject();
+
+        if (project == null) {
+            return null;
+        }
+
+        GlobalSearchScope scope = null;
+
+        final Module[] modules = e.getData(LangDataKeys.MODULE_CONTEXT_ARRAY);
+        if (modules != null) {
+            for (Module module : modules) {
+                scope = union(scope, GlobalSearchScope.moduleScope(module));
+            }
+        }
+
+        final PsiElement[] elements = e.getData(LangDataKeys.PSI_ELEMENT_ARRAY);
+        if (elements != null) {
+            for (PsiElement element : elements) {
+                scope = union(scope, getScope(element));
+            }
+        }
+
+        if (scope == null) {
+            return null;
+        }
+        return scope.intersectWith(GlobalSearchScope.projectScope(project));
+    }
+
+    private static GlobalSearchScope getScope(PsiElement element) {
+        if (element instanceof PsiDirectory) {
+            return GlobalSearchScopesCore.directoryScope((PsiDirectory) element, true);
+        }
+        if (element instanceof PsiPackage) {
+            return PackageScope.packageScope((PsiPackage) element, true);
+        }
+        if (element instanceof PsiFile) {
+            return GlobalSearchScope.fileScope((PsiFile) element);
+        }
+        return null;
+    }
+
+    private static GlobalSearchScope union(GlobalSearchScope scope, GlobalSearchScope other) {
+        if (other == null) {
+            return scope;
+        }
+        return scope == null ? other : scope.union(other);
+    }
+}
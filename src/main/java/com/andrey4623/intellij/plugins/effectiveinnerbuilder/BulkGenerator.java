@@ -0,0 +1,262 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkGenerator {
+
+    private static final String COMMAND_NAME = "Generate Builders and Getters";
+
+    private static final int WRITE_BATCH_SIZE = 50;
+
+    private BulkGenerator() {
+    }
+
+    public static void run(Project project, GlobalSearchScope scope, GenerationSettings settings) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, COMMAND_NAME, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                final List<SmartPsiElementPointer<PsiClass>> classes = collectClasses(project, scope, indicator);
+                final List<Target> targets = plan(project, classes, settings, indicator);
+                applyInBatches(project, targets, settings, false, indicator);
+            }
+        });
+    }
+
+    static List<SmartPsiElementPointer<PsiClass>> collectClasses(
+            Project project,
+            GlobalSearchScope scope,
+            ProgressIndicator indicator
+    ) {
+        indicator.setIndeterminate(false);
+        indicator.setText("Collecting classes...");
+
+        final Collection<VirtualFile> files = DumbService.getInstance(project).runReadActionInSmartMode(
+                () -> FileTypeIndex.getFiles(JavaFileType.INSTANCE, scope)
+        );
+
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        final SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+
+        final List<SmartPsiElementPointer<PsiClass>> classes = new ArrayList<>();
+
+        int processed = 0;
+        for (VirtualFile file : files) {
+            indicator.checkCanceled();
+            indicator.setText2(file.getPresentableUrl());
+            indicator.setFraction((double) processed++ / files.size());
+
+            ReadAction.run(() -> {
+                final PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+                if (!(psiFile instanceof PsiJavaFile)) {
+                    return;
+                }
+
+                for (PsiClass psiClass : ((PsiJavaFile) psiFile).getClasses()) {
+                    if (canGenerate(psiClass)) {
+                        classes.add(pointerManager.createSmartPsiElementPointer(psiClass));
+                    }
+                }
+            });
+        }
+        return classes;
+    }
+
+    static List<Target> plan(
+            Project project,
+            List<SmartPsiElementPointer<PsiClass>> classes,
+            GenerationSettings settings,
+            ProgressIndicator indicator
+    ) {
+        indicator.setText("Analyzing classes...");
+        indicator.setText2("");
+
+        final Target[] targets = new Target[classes.size()];
+        final AtomicInteger processed = new AtomicInteger();
+
+        final List<Integer> indexes = new ArrayList<>(classes.size());
+        for (int i = 0; i < classes.size(); i++) {
+            indexes.add(i);
+        }
+
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(indexes, indicator, index -> {
+            targets[index] = planInSmartMode(project, classes.get(index), settings, indicator);
+            indicator.setFraction((double) processed.incrementAndGet() / classes.size());
+            return true;
+        });
+
+        final List<Target> result = new ArrayList<>(Arrays.asList(targets));
+        result.removeIf(Objects::isNull);
+        return result;
+    }
+
+    private static Target planInSmartMode(
+            Project project,
+            SmartPsiElementPointer<PsiClass> pointer,
+            GenerationSettings settings,
+            ProgressIndicator indicator
+    ) {
+        final DumbService dumbService = DumbService.getInstance(project);
+        final Ref<Target> result = Ref.create();
+        final Ref<Boolean> planned = Ref.create(false);
+
+        while (!planned.get()) {
+            indicator.checkCanceled();
+            dumbService.waitForSmartMode();
+
+            final boolean finished = ProgressManager.getInstance().runInReadActionWithWriteActionPriority(
+                    () -> {
+                        if (!dumbService.isDumb()) {
+                            result.set(plan(pointer, settings));
+                            planned.set(true);
+                        }
+                    },
+                    new SensitiveProgressWrapper(indicator)
+            );
+            if (!finished) {
+                ProgressIndicatorUtils.yieldToPendingWriteActions();
+            }
+        }
+        return result.get();
+    }
+
+    private static Target plan(SmartPsiElementPointer<PsiClass> pointer, GenerationSettings settings) {
+        final PsiClass psiClass = pointer.getElement();
+        if (psiClass == null || !canGenerate(psiClass)) {
+            return null;
+        }
+
+        final GenerationStatistics statistics = GenerationStatistics.of(psiClass);
+        return new Target(
+                pointer,
+                psiClass.getContainingFile().getModificationStamp(),
+                BuilderPlanner.plan(psiClass, settings, statistics),
+                statistics
+        );
+    }
+
+    static boolean canGenerate(PsiClass psiClass) {
+        return !psiClass.isInterface()
+                && !psiClass.isEnum()
+                && !psiClass.isAnnotationType()
+                && !BuilderPlanner.getFields(psiClass).isEmpty();
+    }
+
+    static void applyInBatches(
+            Project project,
+            List<Target> targets,
+            GenerationSettings settings,
+            boolean saveAfterEachBatch,
+            ProgressIndicator indicator
+    ) {
+        indicator.setText("Generating builders...");
+
+        final GenerationStatisticsService statisticsService = GenerationStatisticsService.getInstance(project);
+        final List<BuilderPlan> skippedBinaryCodecs = new ArrayList<>();
+
+        for (int from = 0; from < targets.size(); from += WRITE_BATCH_SIZE) {
+            indicator.checkCanceled();
+            indicator.setText2(from + " of " + targets.size() + " classes");
+            indicator.setFraction((double) from / targets.size());
+
+            final List<Target> batch = targets.subList(from, Math.min(from + WRITE_BATCH_SIZE, targets.size()));
+
+            ApplicationManager.getApplication().invokeAndWait(
+                    () -> {
+                        WriteCommandAction.runWriteCommandAction(
+                                project,
+                                COMMAND_NAME,
+                                null,
+                                () -> {
+                                    for (Target target : batch) {
+                                        final BuilderPlan plan = target.apply(settings);
+                                        if (plan == null) {
+                                            continue;
+                                        }
+
+                                        statisticsService.record(target.statistics);
+                                        if (GenerationNotifications.isBinaryCodecSkipped(plan)) {
+                                            skippedBinaryCodecs.add(plan);
+                                        }
+                                    }
+                                }
+                        );
+
+                        if (saveAfterEachBatch) {
+                            PsiDocumentManager.getInstance(project).commitAllDocuments();
+                            FileDocumentManager.getInstance().saveAllDocuments();
+                        }
+                    },
+                    ModalityState.defaultModalityState()
+            );
+        }
+
+        GenerationNotifications.warnBinaryCodecSkipped(project, skippedBinaryCodecs);
+    }
+
+    static class Target {
+
+        private final SmartPsiElementPointer<PsiClass> pointer;
+        private final long modificationStamp;
+        private final BuilderPlan plan;
+        private final GenerationStatistics statistics;
+
+        private Target(
+                SmartPsiElementPointer<PsiClass> pointer,
+                long modificationStamp,
+                BuilderPlan plan,
+                GenerationStatistics statistics
+        ) {
+            this.pointer = pointer;
+            this.modificationStamp = modificationStamp;
+            this.plan = plan;
+            this.statistics = statistics;
+        }
+
+        private BuilderPlan apply(GenerationSettings settings) {
+            final PsiClass psiClass = pointer.getElement();
+            if (psiClass == null || !canGenerate(psiClass)) {
+                return null;
+            }
+
+            final BuilderPlan actualPlan = psiClass.getContainingFile().getModificationStamp() == modificationStamp
+                    ? plan
+                    : BuilderPlanner.plan(psiClass, settings, statistics);
+
+            statistics.setFieldCount(actualPlan.getFields().size());
+            BuilderGenerator.generate(psiClass, actualPlan, statistics);
+            return actualPlan;
+        }
+    }
+}
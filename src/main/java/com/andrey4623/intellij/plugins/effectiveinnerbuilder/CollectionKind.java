@@ -0,0 +1,51 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+public enum CollectionKind {
+    NONE(null, null, 0),
+    LIST("java.util.List", "java.util.ArrayList", 1),
+    SET("java.util.Set", "java.util.HashSet", 1),
+    MAP("java.util.Map", "java.util.HashMap", 2);
+
+    private final String qualifiedName;
+    private final String mutableImplementation;
+    private final int typeParameterCount;
+
+    CollectionKind(String qualifiedName, String mutableImplementation, int typeParameterCount) {
+        this.qualifiedName = qualifiedName;
+        this.mutableImplementation = mutableImplementation;
+        this.typeParameterCount = typeParameterCount;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getMutableImplementation() {
+        return mutableImplementation;
+    }
+
+    public int getTypeParameterCount() {
+        return typeParameterCount;
+    }
+
+    public String getCopyFactory() {
+        return qualifiedName + ".copyOf";
+    }
+
+    public String getEmptyFactory() {
+        return "java.util.Collections.empty" + qualifiedName.substring("java.util.".length());
+    }
+
+    public String getUnmodifiableWrapper() {
+        return "java.util.Collections.unmodifiable" + qualifiedName.substring("java.util.".length());
+    }
+
+    public static CollectionKind of(String qualifiedName) {
+        for (CollectionKind kind : values()) {
+            if (kind.qualifiedName != null && kind.qualifiedName.equals(qualifiedName)) {
+                return kind;
+            }
+        }
+        return NONE;
+    }
+}
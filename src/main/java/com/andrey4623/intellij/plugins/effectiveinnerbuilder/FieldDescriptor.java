@@ -0,0 +1,147 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class FieldDescriptor {
+
+    private final String name;
+    private final String type;
+    private final String boxedType;
+    private final boolean primitive;
+    private final Nullness nullness;
+    private final boolean annotationMissing;
+    private final CollectionKind collectionKind;
+    private final List<String> typeArguments;
+    private final boolean enumType;
+
+    private FieldDescriptor(Builder builder) {
+        this.name = builder.name;
+        this.type = builder.type;
+        this.boxedType = builder.boxedType;
+        this.primitive = builder.primitive;
+        this.nullness = builder.nullness;
+        this.annotationMissing = builder.annotationMissing;
+        this.collectionKind = builder.collectionKind;
+        this.typeArguments = Collections.unmodifiableList(new ArrayList<>(builder.typeArguments));
+        this.enumType = builder.enumType;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getBoxedType() {
+        return boxedType;
+    }
+
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    public Nullness getNullness() {
+        return nullness;
+    }
+
+    public boolean isNonNull() {
+        return nullness == Nullness.NONNULL;
+    }
+
+    public boolean isNullable() {
+        return nullness == Nullness.NULLABLE;
+    }
+
+    public boolean isAnnotationMissing() {
+        return annotationMissing;
+    }
+
+    public CollectionKind getCollectionKind() {
+        return collectionKind;
+    }
+
+    public boolean isCollection() {
+        return collectionKind != CollectionKind.NONE;
+    }
+
+    public List<String> getTypeArguments() {
+        return typeArguments;
+    }
+
+    public boolean isEnumType() {
+        return enumType;
+    }
+
+    public static class Builder {
+
+        private String name;
+        private String type;
+        private String boxedType;
+        private boolean primitive;
+        private Nullness nullness = Nullness.UNKNOWN;
+        private boolean annotationMissing;
+        private CollectionKind collectionKind = CollectionKind.NONE;
+        private final List<String> typeArguments = new ArrayList<>();
+        private boolean enumType;
+
+        private Builder() {
+        }
+
+        public Builder setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder setType(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder setBoxedType(String boxedType) {
+            this.boxedType = boxedType;
+            return this;
+        }
+
+        public Builder setPrimitive(boolean primitive) {
+            this.primitive = primitive;
+            return this;
+        }
+
+        public Builder setNullness(Nullness nullness) {
+            this.nullness = nullness;
+            return this;
+        }
+
+        public Builder setAnnotationMissing(boolean annotationMissing) {
+            this.annotationMissing = annotationMissing;
+            return this;
+        }
+
+        public Builder setCollectionKind(CollectionKind collectionKind) {
+            this.collectionKind = collectionKind;
+            return this;
+        }
+
+        public Builder addTypeArgument(String typeArgument) {
+            this.typeArguments.add(typeArgument);
+            return this;
+        }
+
+        public Builder setEnumType(boolean enumType) {
+            this.enumType = enumType;
+            return this;
+        }
+
+        public FieldDescriptor build() {
+            return new FieldDescriptor(this);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class FieldLayout {
+
+    static final int HEADER_SIZE = 12;
+    static final int REFERENCE_SIZE = 4;
+    static final int OBJECT_ALIGNMENT = 8;
+
+    private static final int MIN_PADDING_TO_REPORT = 4;
+
+    private static final Map<String, String> PRIMITIVES_BY_BOXED_TYPE = new HashMap<>();
+
+    static {
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Boolean", "boolean");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Byte", "byte");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Short", "short");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Character", "char");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Integer", "int");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Float", "float");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Long", "long");
+        PRIMITIVES_BY_BOXED_TYPE.put("java.lang.Double", "double");
+    }
+
+    private final String className;
+    private final List<FieldDescriptor> fields;
+    private final List<Integer> offsets;
+    private final int fieldsSize;
+    private final int instanceSize;
+    private final List<String> suggestions;
+
+    private FieldLayout(String className, List<FieldDescriptor> declaredFields) {
+        this.className = className;
+        this.fields = order(declaredFields, FieldDescriptor::getType);
+        this.offsets = computeOffsets(fields, FieldDescriptor::getType);
+        this.fieldsSize = getFieldsSize(fields, FieldDescriptor::getType);
+        this.instanceSize = getInstanceSize(fields, offsets, FieldDescriptor::getType);
+        this.suggestions = suggest(declaredFields, instanceSize);
+    }
+
+    public static FieldLayout of(BuilderPlan plan) {
+        return new FieldLayout(plan.getClassName(), plan.getFields());
+    }
+
+    public int getInstanceSize() {
+        return instanceSize;
+    }
+
+    public int getPaddingSize() {
+        return instanceSize - HEADER_SIZE - fieldsSize;
+    }
+
+    public List<String> getSuggestions() {
+        return Collections.unmodifiableList(suggestions);
+    }
+
+    public String getReport() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("Estimated shallow size of ").append(className).append(": ").append(instanceSize).append(" bytes (")
+                .append(HEADER_SIZE).append(" header + ").append(fieldsSize).append(" fields + ")
+                .append(getPaddingSize()).append(" padding), ")
+                .append(String.format("%.1f", instanceSize * 1_000_000 / (1024.0 * 1024.0)))
+                .append(" MB per million instances.\n");
+        sb.append("Assumes 64-bit HotSpot with compressed oops and class pointers; superclass fields are not counted.\n\n");
+
+        sb.append("Layout:\n");
+        for (int i = 0; i < fields.size(); i++) {
+            final FieldDescriptor field = fields.get(i);
+            sb.append(String.format("%6d  %-4d %s %s%n",
+                    offsets.get(i), getSize(field.getType()), field.getType(), field.getName()));
+        }
+
+        if (!suggestions.isEmpty()) {
+            sb.append("\nSuggestions:\n");
+            for (String suggestion : suggestions) {
+                sb.append("- ").append(suggestion).append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    static int getSize(String type) {
+        switch (type) {
+            case "long":
+            case "double":
+                return 8;
+            case "int":
+            case "float":
+                return 4;
+            case "short":
+            case "char":
+                return 2;
+            case "byte":
+            case "boolean":
+                return 1;
+            default:
+                return REFERENCE_SIZE;
+        }
+    }
+
+    static String getPrimitiveType(String boxedType) {
+        return PRIMITIVES_BY_BOXED_TYPE.get(boxedType);
+    }
+
+    static <T> List<T> order(List<T> fields, Function<T, String> typeOf) {
+        final List<T> gapFillers = new ArrayList<>();
+        final List<List<T>> primitivesBySize = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            primitivesBySize.add(new ArrayList<>());
+        }
+        final List<T> references = new ArrayList<>();
+
+        for (T field : fields) {
+            final String type = typeOf.apply(field);
+            if (isReference(type)) {
+                references.add(field);
+            } else {
+                primitivesBySize.get(Integer.numberOfTrailingZeros(getSize(type))).add(field);
+            }
+        }
+
+        if (!primitivesBySize.get(3).isEmpty()) {
+            int gap = OBJECT_ALIGNMENT - HEADER_SIZE % OBJECT_ALIGNMENT;
+            for (int sizeIndex = 2; sizeIndex >= 0 && gap > 0; sizeIndex--) {
+                final int size = 1 << sizeIndex;
+                final List<T> candidates = primitivesBySize.get(sizeIndex);
+                while (gap >= size && !candidates.isEmpty()) {
+                    gapFillers.add(candidates.remove(0));
+                    gap -= size;
+                }
+            }
+        }
+
+        final List<T> result = new ArrayList<>(gapFillers);
+        for (int sizeIndex = 3; sizeIndex >= 0; sizeIndex--) {
+            result.addAll(primitivesBySize.get(sizeIndex));
+        }
+        result.addAll(references);
+        return result;
+    }
+
+    private static <T> List<Integer> computeOffsets(List<T> orderedFields, Function<T, String> typeOf) {
+        final List<Integer> result = new ArrayList<>(orderedFields.size());
+
+        int offset = HEADER_SIZE;
+        for (T field : orderedFields) {
+            final int size = getSize(typeOf.apply(field));
+            offset = align(offset, size);
+            result.add(offset);
+            offset += size;
+        }
+        return result;
+    }
+
+    private static <T> int getFieldsSize(List<T> fields, Function<T, String> typeOf) {
+        int result = 0;
+        for (T field : fields) {
+            result += getSize(typeOf.apply(field));
+        }
+        return result;
+    }
+
+    private static <T> int getInstanceSize(List<T> orderedFields, List<Integer> offsets, Function<T, String> typeOf) {
+        if (orderedFields.isEmpty()) {
+            return align(HEADER_SIZE, OBJECT_ALIGNMENT);
+        }
+
+        final int last = orderedFields.size() - 1;
+        return align(offsets.get(last) + getSize(typeOf.apply(orderedFields.get(last))), OBJECT_ALIGNMENT);
+    }
+
+    private static int estimate(List<String> types) {
+        final List<String> ordered = order(types, Function.identity());
+        return getInstanceSize(ordered, computeOffsets(ordered, Function.identity()), Function.identity());
+    }
+
+    private static List<String> suggest(List<FieldDescriptor> fields, int instanceSize) {
+        final List<String> result = new ArrayList<>();
+
+        final List<String> types = new ArrayList<>();
+        for (FieldDescriptor field : fields) {
+            types.add(field.getType());
+        }
+
+        for (FieldDescriptor field : fields) {
+            final String primitive = PRIMITIVES_BY_BOXED_TYPE.get(field.getType());
+            if (primitive != null && !field.isNullable()) {
+                result.add(field.getName() + ": " + field.getType() + " -> " + primitive
+                        + " stores the value inline instead of referencing a separate "
+                        + align(HEADER_SIZE + getSize(primitive), OBJECT_ALIGNMENT) + "-byte object"
+                        + " (unless it comes from the box cache)");
+            }
+        }
+
+        final int booleanCount = Collections.frequency(types, "boolean");
+        if (booleanCount > 1 && booleanCount <= Long.SIZE) {
+            final List<String> packed = new ArrayList<>(types);
+            packed.removeAll(Collections.singleton("boolean"));
+            final String bitSetType = getBitSetType(booleanCount);
+            packed.add(bitSetType);
+
+            final int saved = instanceSize - estimate(packed);
+            if (saved > 0) {
+                result.add(booleanCount + " boolean fields packed into one " + bitSetType + " bit set save "
+                        + saved + " bytes per instance");
+            }
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            final String narrower = getNarrowerType(types.get(i));
+            if (narrower == null) {
+                continue;
+            }
+
+            final List<String> narrowed = new ArrayList<>(types);
+            narrowed.set(i, narrower);
+
+            final int saved = instanceSize - estimate(narrowed);
+            if (saved > 0) {
+                result.add(fields.get(i).getName() + ": " + types.get(i) + " -> " + narrower + " saves "
+                        + saved + " bytes per instance if the values fit");
+            }
+        }
+
+        final int padding = instanceSize - HEADER_SIZE - getFieldsSize(types, Function.identity());
+        if (padding >= MIN_PADDING_TO_REPORT) {
+            result.add(padding + " bytes are lost to alignment padding; up to " + padding
+                    + " bytes of fields can be added without growing the instance");
+        }
+
+        return result;
+    }
+
+    private static String getBitSetType(int bitCount) {
+        if (bitCount <= Byte.SIZE) {
+            return "byte";
+        }
+        if (bitCount <= Short.SIZE) {
+            return "short";
+        }
+        return bitCount <= Integer.SIZE ? "int" : "long";
+    }
+
+    private static String getNarrowerType(String type) {
+        switch (type) {
+            case "long":
+                return "int";
+            case "double":
+                return "float";
+            case "int":
+                return "short";
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isReference(String type) {
+        return getSize(type) == REFERENCE_SIZE && !"int".equals(type) && !"float".equals(type);
+    }
+
+    private static int align(int value, int alignment) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+}
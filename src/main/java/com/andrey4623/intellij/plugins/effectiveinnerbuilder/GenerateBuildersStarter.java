@@ -0,0 +1,260 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PackageScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class GenerateBuildersStarter implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(GenerateBuildersStarter.class);
+
+    private static final String COMMAND_NAME = "generateBuilders";
+
+    private static final String USAGE = "Usage: " + COMMAND_NAME + " <project path>"
+            + " [--package <package>] [--annotation <qualified name>] [--name-pattern <regex>]"
+            + " [--no-make-final] [--no-annotations] [--no-getters] [--no-null-checks]"
+            + " [--bit-mask] [--reset] [--withers] [--staged] [--optimize-layout] [--equals] [--intern]"
+            + " [--intern-cache-size <size>] [--collections] [--codec] [--canonical-constructor]";
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public void premain(@NotNull String[] args) {
+    }
+
+    @Override
+    public void main(@NotNull String[] args) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            int exitCode;
+            try {
+                exitCode = run(args);
+            } catch (Throwable t) {
+                LOG.error(t);
+                exitCode = 1;
+            }
+            System.exit(exitCode);
+        });
+    }
+
+    private static int run(String[] args) {
+        final Arguments arguments = Arguments.parse(args);
+        if (arguments == null) {
+            System.err.println(USAGE);
+            return 1;
+        }
+
+        final Project project = ProjectUtil.openOrImport(arguments.projectPath, null, false);
+        if (project == null) {
+            System.err.println("Cannot open project " + arguments.projectPath);
+            return 1;
+        }
+
+        DumbService.getInstance(project).waitForSmartMode();
+
+        final ProgressIndicator indicator = new EmptyProgressIndicator();
+        final int[] generated = new int[1];
+
+        ProgressManager.getInstance().runProcess(() -> {
+            final List<SmartPsiElementPointer<PsiClass>> classes = findClasses(project, arguments, indicator);
+            final List<BulkGenerator.Target> targets = BulkGenerator.plan(project, classes, arguments.settings, indicator);
+            BulkGenerator.applyInBatches(project, targets, arguments.settings, true, indicator);
+
+            generated[0] = targets.size();
+        }, indicator);
+
+        System.out.println("Generated builders for " + generated[0] + " classes");
+        return 0;
+    }
+
+    private static List<SmartPsiElementPointer<PsiClass>> findClasses(
+            Project project,
+            Arguments arguments,
+            ProgressIndicator indicator
+    ) {
+        final GlobalSearchScope scope = ReadAction.compute(() -> getScope(project, arguments));
+
+        if (arguments.annotation == null && arguments.namePattern == null) {
+            return BulkGenerator.collectClasses(project, scope, indicator);
+        }
+
+        return ReadAction.compute(() -> {
+            final SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+            final List<SmartPsiElementPointer<PsiClass>> classes = new ArrayList<>();
+
+            for (PsiClass psiClass : findCandidates(project, arguments, scope)) {
+                indicator.checkCanceled();
+                if (BulkGenerator.canGenerate(psiClass) && matches(psiClass, arguments)) {
+                    classes.add(pointerManager.createSmartPsiElementPointer(psiClass));
+                }
+            }
+            return classes;
+        });
+    }
+
+    private static GlobalSearchScope getScope(Project project, Arguments arguments) {
+        final GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        if (arguments.packageName == null) {
+            return projectScope;
+        }
+
+        final PsiPackage psiPackage = JavaPsiFacade.getInstance(project).findPackage(arguments.packageName);
+        if (psiPackage == null) {
+            return GlobalSearchScope.EMPTY_SCOPE;
+        }
+        return projectScope.intersectWith(PackageScope.packageScope(psiPackage, true));
+    }
+
+    private static Iterable<PsiClass> findCandidates(Project project, Arguments arguments, GlobalSearchScope scope) {
+        if (arguments.annotation != null) {
+            final PsiClass annotationClass = JavaPsiFacade.getInstance(project)
+                    .findClass(arguments.annotation, GlobalSearchScope.allScope(project));
+            if (annotationClass == null) {
+                return new ArrayList<>();
+            }
+            return AnnotatedElementsSearch.searchPsiClasses(annotationClass, scope).findAll();
+        }
+
+        final PsiShortNamesCache namesCache = PsiShortNamesCache.getInstance(project);
+        final List<PsiClass> classes = new ArrayList<>();
+        for (String name : namesCache.getAllClassNames()) {
+            if (arguments.namePattern.matcher(name).matches()) {
+                for (PsiClass psiClass : namesCache.getClassesByName(name, scope)) {
+                    classes.add(psiClass);
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static boolean matches(PsiClass psiClass, Arguments arguments) {
+        return arguments.namePattern == null
+                || (psiClass.getName() != null && arguments.namePattern.matcher(psiClass.getName()).matches());
+    }
+
+    private static class Arguments {
+
+        private String projectPath;
+        private String packageName;
+        private String annotation;
+        private Pattern namePattern;
+        private GenerationSettings settings;
+
+        private static Arguments parse(String[] args) {
+            final Arguments arguments = new Arguments();
+            final GenerationSettings.Builder settings = GenerationSettings.builder()
+                    .setMakeFieldsPrivateAndFinal(true)
+                    .setEnsureAllFieldsHaveAnnotations(true)
+                    .setGenerateGetters(true)
+                    .setGenerateBuilder(true)
+                    .setCheckForNullsInConstructor(true);
+
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--package":
+                        arguments.packageName = ++i < args.length ? args[i] : null;
+                        break;
+                    case "--annotation":
+                        arguments.annotation = ++i < args.length ? args[i] : null;
+                        break;
+                    case "--name-pattern":
+                        arguments.namePattern = ++i < args.length ? Pattern.compile(args[i]) : null;
+                        break;
+                    case "--no-make-final":
+                        settings.setMakeFieldsPrivateAndFinal(false);
+                        break;
+                    case "--no-annotations":
+                        settings.setEnsureAllFieldsHaveAnnotations(false);
+                        break;
+                    case "--no-getters":
+                        settings.setGenerateGetters(false);
+                        break;
+                    case "--no-null-checks":
+                        settings.setCheckForNullsInConstructor(false);
+                        break;
+                    case "--bit-mask":
+                        settings.setTrackSetFieldsInBitMask(true);
+                        break;
+                    case "--reset":
+                        settings.setGenerateResetMethod(true);
+                        break;
+                    case "--withers":
+                        settings.setGenerateWithers(true);
+                        break;
+                    case "--staged":
+                        settings.setGenerateStagedBuilder(true);
+                        break;
+                    case "--optimize-layout":
+                        settings.setOptimizeFieldLayout(true);
+                        break;
+                    case "--equals":
+                        settings.setGenerateEqualsAndHashCode(true);
+                        break;
+                    case "--intern":
+                        settings.setInternInstances(true);
+                        break;
+                    case "--intern-cache-size":
+                        final Integer internCacheSize = ++i < args.length ? parseSize(args[i]) : null;
+                        if (internCacheSize == null) {
+                            return null;
+                        }
+                        settings.setInternCacheSize(internCacheSize);
+                        break;
+                    case "--collections":
+                        settings.setGenerateCollectionAccumulators(true);
+                        break;
+                    case "--codec":
+                        settings.setGenerateBinaryCodec(true);
+                        break;
+                    case "--canonical-constructor":
+                        settings.setUseCanonicalConstructor(true);
+                        break;
+                    default:
+                        if (arguments.projectPath != null) {
+                            return null;
+                        }
+                        arguments.projectPath = args[i];
+                }
+            }
+
+            if (arguments.projectPath == null) {
+                return null;
+            }
+
+            arguments.settings = settings.build();
+            return arguments;
+        }
+
+        private static Integer parseSize(String value) {
+            try {
+                final int size = Integer.parseInt(value);
+                return size > 0 ? size : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
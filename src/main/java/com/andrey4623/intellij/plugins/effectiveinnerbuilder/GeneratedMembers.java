@@ -0,0 +1,300 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiKeyword;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class GeneratedMembers {
+
+    private static final String BUILDER_CLASS_NAME = "Builder";
+    private static final String BYTE_BUFFER = "java.nio.ByteBuffer";
+
+    private static final Set<String> STATIC_FIELD_NAMES = new HashSet<>(Arrays.asList(
+            "REUSABLE_BUILDER", "INTERN_CACHE_MAX_SIZE", "INTERN_CACHE", "INTERN_HITS", "INTERN_MISSES"
+    ));
+    private static final Set<String> STATIC_BUILDER_METHOD_NAMES = new HashSet<>(Arrays.asList(
+            "builder", "reusableBuilder"
+    ));
+    private static final Set<String> CODEC_HELPER_NAMES = new HashSet<>(Arrays.asList(
+            "writeUtf8", "readUtf8", "writeBytes", "readBytes"
+    ));
+    private static final Set<String> INTERN_COUNTER_NAMES = new HashSet<>(Arrays.asList(
+            "internHits", "internMisses"
+    ));
+
+    private GeneratedMembers() {
+    }
+
+    public static boolean hasGeneratedBuilder(PsiClass psiClass) {
+        return findOfMethod(psiClass) != null
+                && (findBuilderConstructor(psiClass) != null || findCanonicalConstructor(psiClass) != null);
+    }
+
+    public static PsiMethod findOfMethod(PsiClass psiClass) {
+        final PsiClass builderClass = findBuilderClass(psiClass);
+        if (builderClass == null) {
+            return null;
+        }
+
+        for (PsiMethod method : builderClass.findMethodsByName("of", false)) {
+            final PsiParameter[] parameters = method.getParameterList().getParameters();
+            if (parameters.length == 1 && isClassType(parameters[0].getType(), psiClass)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    public static PsiMethod findCanonicalConstructor(PsiClass psiClass) {
+        final PsiMethod builderConstructor = findBuilderConstructor(psiClass);
+        if (builderConstructor != null) {
+            final PsiMethod delegate = findDelegate(builderConstructor);
+            if (isCanonicalConstructor(psiClass, delegate)) {
+                return delegate;
+            }
+        }
+
+        final PsiClass builderClass = findBuilderClass(psiClass);
+        if (builderClass == null) {
+            return null;
+        }
+
+        for (PsiMethod build : builderClass.findMethodsByName("build", false)) {
+            for (PsiNewExpression newExpression : PsiTreeUtil.findChildrenOfType(build, PsiNewExpression.class)) {
+                final PsiMethod constructor = newExpression.resolveConstructor();
+                if (isCanonicalConstructor(psiClass, constructor)) {
+                    return constructor;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static Set<PsiMember> find(PsiClass psiClass) {
+        final Set<PsiMember> result = new LinkedHashSet<>();
+
+        final PsiClass builderClass = findBuilderClass(psiClass);
+        if (builderClass == null) {
+            return result;
+        }
+
+        final PsiMethod canonicalConstructor = findCanonicalConstructor(psiClass);
+        if (canonicalConstructor != null && isMarked(canonicalConstructor)) {
+            result.add(canonicalConstructor);
+        }
+
+        final Set<PsiClass> stages = new HashSet<>();
+        for (PsiClassType stageType : builderClass.getImplementsListTypes()) {
+            final PsiClass stage = stageType.resolve();
+            if (stage != null && stage.isInterface() && psiClass.equals(stage.getContainingClass())) {
+                stages.add(stage);
+            }
+        }
+        for (PsiClass stage : stages) {
+            if (isMarked(stage)) {
+                result.add(stage);
+            }
+        }
+
+        for (PsiMethod method : psiClass.getMethods()) {
+            if (isMarked(method) && isGeneratedMethod(psiClass, builderClass, stages, canonicalConstructor, method)) {
+                result.add(method);
+            }
+        }
+
+        for (PsiField field : psiClass.getFields()) {
+            if (isMarked(field) && isGeneratedField(field)) {
+                result.add(field);
+            }
+        }
+
+        return result;
+    }
+
+    public static Set<PsiMethod> findGettersOfRemovedFields(PsiClass psiClass) {
+        final Set<String> getterNames = new HashSet<>();
+        for (PsiField field : psiClass.getFields()) {
+            getterNames.add("get" + BuilderRenderer.makeFirstLetterUpperCase(field.getName()));
+        }
+
+        final Set<PsiMethod> result = new LinkedHashSet<>();
+        for (PsiMethod method : psiClass.getMethods()) {
+            if (isMarked(method)
+                    && !method.isConstructor()
+                    && !method.hasModifierProperty(PsiModifier.STATIC)
+                    && method.getName().startsWith("get")
+                    && method.getParameterList().getParametersCount() == 0
+                    && !getterNames.contains(method.getName())) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    public static boolean isMarked(PsiMember member) {
+        for (PsiElement child = member.getFirstChild();
+             child instanceof PsiComment || child instanceof PsiWhiteSpace;
+             child = child.getNextSibling()) {
+            if (child instanceof PsiComment && BuilderRenderer.GENERATED_MARKER.equals(child.getText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isGeneratedMethod(
+            PsiClass psiClass,
+            PsiClass builderClass,
+            Set<PsiClass> stages,
+            PsiMethod canonicalConstructor,
+            PsiMethod method
+    ) {
+        final PsiParameter[] parameters = method.getParameterList().getParameters();
+        final boolean isStatic = method.hasModifierProperty(PsiModifier.STATIC);
+        final PsiType returnType = method.getReturnType();
+
+        if (method.isConstructor()) {
+            return isBuilderConstructor(builderClass, method);
+        }
+        if (isStatic && STATIC_BUILDER_METHOD_NAMES.contains(method.getName())) {
+            final PsiClass returnClass = PsiUtil.resolveClassInType(returnType);
+            return returnClass != null && (returnClass.equals(builderClass) || stages.contains(returnClass));
+        }
+        if (!isStatic && method.getName().startsWith("with") && parameters.length == 1
+                && isClassType(returnType, psiClass)) {
+            return canonicalConstructor != null && canonicalConstructor.equals(findReturnedConstructor(method));
+        }
+        if (!isStatic && method.getName().equals("writeTo") && parameters.length == 1
+                && isByteBuffer(parameters[0].getType())) {
+            return PsiType.VOID.equals(returnType);
+        }
+        if (isStatic && method.getName().equals("readFrom") && parameters.length == 1
+                && isByteBuffer(parameters[0].getType())) {
+            return isClassType(returnType, psiClass);
+        }
+        if (isStatic && CODEC_HELPER_NAMES.contains(method.getName()) && parameters.length > 0) {
+            return method.hasModifierProperty(PsiModifier.PRIVATE) && isByteBuffer(parameters[0].getType());
+        }
+        if (isStatic && method.getName().equals("intern") && parameters.length == 1) {
+            return method.hasModifierProperty(PsiModifier.PRIVATE) && isClassType(parameters[0].getType(), psiClass);
+        }
+        if (isStatic && INTERN_COUNTER_NAMES.contains(method.getName()) && parameters.length == 0) {
+            return PsiType.LONG.equals(returnType);
+        }
+        return false;
+    }
+
+    private static boolean isGeneratedField(PsiField field) {
+        if (!field.hasModifierProperty(PsiModifier.STATIC) || !field.hasModifierProperty(PsiModifier.PRIVATE)) {
+            return false;
+        }
+        if (STATIC_FIELD_NAMES.contains(field.getName())) {
+            return true;
+        }
+
+        final PsiExpression initializer = field.getInitializer();
+        return field.getName().endsWith("_VALUES")
+                && initializer instanceof PsiMethodCallExpression
+                && "values".equals(((PsiMethodCallExpression) initializer).getMethodExpression().getReferenceName());
+    }
+
+    private static PsiClass findBuilderClass(PsiClass psiClass) {
+        return psiClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+    }
+
+    private static PsiMethod findBuilderConstructor(PsiClass psiClass) {
+        final PsiClass builderClass = findBuilderClass(psiClass);
+        if (builderClass == null) {
+            return null;
+        }
+
+        for (PsiMethod constructor : psiClass.getConstructors()) {
+            if (isBuilderConstructor(builderClass, constructor)) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBuilderConstructor(PsiClass builderClass, PsiMethod constructor) {
+        final PsiParameter[] parameters = constructor.getParameterList().getParameters();
+        return builderClass != null
+                && constructor.isConstructor()
+                && parameters.length == 1
+                && isClassType(parameters[0].getType(), builderClass);
+    }
+
+    private static boolean isCanonicalConstructor(PsiClass psiClass, PsiMethod constructor) {
+        return constructor != null
+                && constructor.isConstructor()
+                && psiClass.equals(constructor.getContainingClass())
+                && constructor.hasModifierProperty(PsiModifier.PRIVATE)
+                && !isBuilderConstructor(findBuilderClass(psiClass), constructor);
+    }
+
+    private static PsiMethod findDelegate(PsiMethod constructor) {
+        final PsiCodeBlock body = constructor.getBody();
+        if (body == null || body.getStatements().length != 1) {
+            return null;
+        }
+
+        final PsiStatement statement = body.getStatements()[0];
+        if (!(statement instanceof PsiExpressionStatement)) {
+            return null;
+        }
+
+        final PsiExpression expression = ((PsiExpressionStatement) statement).getExpression();
+        if (!(expression instanceof PsiMethodCallExpression)) {
+            return null;
+        }
+
+        final PsiMethodCallExpression call = (PsiMethodCallExpression) expression;
+        return PsiKeyword.THIS.equals(call.getMethodExpression().getReferenceName()) ? call.resolveMethod() : null;
+    }
+
+    private static PsiMethod findReturnedConstructor(PsiMethod method) {
+        final PsiCodeBlock body = method.getBody();
+        if (body == null || body.getStatements().length == 0) {
+            return null;
+        }
+
+        final PsiStatement last = body.getStatements()[body.getStatements().length - 1];
+        if (!(last instanceof PsiReturnStatement)) {
+            return null;
+        }
+
+        final PsiExpression value = ((PsiReturnStatement) last).getReturnValue();
+        return value instanceof PsiNewExpression ? ((PsiNewExpression) value).resolveConstructor() : null;
+    }
+
+    private static boolean isClassType(PsiType type, PsiClass psiClass) {
+        return psiClass.equals(PsiUtil.resolveClassInType(type));
+    }
+
+    private static boolean isByteBuffer(PsiType type) {
+        return type.equalsToText(BYTE_BUFFER);
+    }
+}
@@ -0,0 +1,36 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+public interface GenerationListener {
+
+    GenerationListener NONE = new GenerationListener() {
+        @Override
+        public void phaseStarted(GenerationPhase phase) {
+        }
+
+        @Override
+        public void phaseFinished(GenerationPhase phase) {
+        }
+
+        @Override
+        public void elementCreated() {
+        }
+
+        @Override
+        public void elementInserted() {
+        }
+
+        @Override
+        public void classReferencesShortened() {
+        }
+    };
+
+    void phaseStarted(GenerationPhase phase);
+
+    void phaseFinished(GenerationPhase phase);
+
+    void elementCreated();
+
+    void elementInserted();
+
+    void classReferencesShortened();
+}
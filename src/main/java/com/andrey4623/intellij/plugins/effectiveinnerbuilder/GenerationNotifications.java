@@ -0,0 +1,48 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.notification.NotificationDisplayType;
+import com.intellij.notification.NotificationGroup;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GenerationNotifications {
+
+    private static final Logger LOG = Logger.getInstance(GenerationNotifications.class);
+
+    private static final NotificationGroup GROUP =
+            new NotificationGroup("Effective Inner Builder", NotificationDisplayType.BALLOON, true);
+
+    private static final String TITLE = "Binary codec was not generated";
+
+    private GenerationNotifications() {
+    }
+
+    public static void warnBinaryCodecSkipped(Project project, List<BuilderPlan> plans) {
+        final List<String> classes = new ArrayList<>();
+        for (BuilderPlan plan : plans) {
+            if (isBinaryCodecSkipped(plan)) {
+                classes.add(plan.getClassName() + " (" + String.join(", ", BinaryCodecRenderer.getUnsupportedFields(plan)) + ")");
+            }
+        }
+
+        if (classes.isEmpty()) {
+            return;
+        }
+
+        final String content = "Only primitives, boxed primitives, String, enums and byte[] fields are supported: "
+                + String.join(", ", classes);
+
+        LOG.warn(TITLE + ". " + content);
+        GROUP.createNotification(TITLE, content, NotificationType.WARNING, null).notify(project);
+    }
+
+    static boolean isBinaryCodecSkipped(BuilderPlan plan) {
+        return plan.getSettings().generateBuilder()
+                && plan.getSettings().generateBinaryCodec()
+                && !BinaryCodecRenderer.isSupported(plan);
+    }
+}
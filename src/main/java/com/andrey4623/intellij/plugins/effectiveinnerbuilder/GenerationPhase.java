@@ -0,0 +1,12 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+public enum GenerationPhase {
+    PLAN,
+    MAKE_FIELDS_PRIVATE_AND_FINAL,
+    ENSURE_ANNOTATIONS,
+    RENDER,
+    PARSE,
+    SHORTEN_CLASS_REFERENCES,
+    MERGE,
+    ANNOTATE_CLASS
+}
@@ -0,0 +1,250 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class GenerationSettings {
+
+    public static final int DEFAULT_INTERN_CACHE_SIZE = 10_000;
+
+    private final boolean makeFieldsPrivateAndFinal;
+    private final boolean ensureAllFieldsHaveAnnotations;
+    private final boolean generateGetters;
+    private final boolean generateBuilder;
+    private final boolean checkForNullsInConstructor;
+    private final Set<NullnessAnnotations> recognizedNullnessAnnotations;
+    private final boolean trackSetFieldsInBitMask;
+    private final boolean generateResetMethod;
+    private final boolean generateThreadLocalBuilder;
+    private final boolean generateWithers;
+    private final boolean generateStagedBuilder;
+    private final boolean optimizeFieldLayout;
+    private final boolean generateEqualsAndHashCode;
+    private final boolean internInstances;
+    private final int internCacheSize;
+    private final boolean generateCollectionAccumulators;
+    private final boolean generateBinaryCodec;
+    private final boolean useCanonicalConstructor;
+
+    private GenerationSettings(Builder builder) {
+        this.makeFieldsPrivateAndFinal = builder.makeFieldsPrivateAndFinal;
+        this.ensureAllFieldsHaveAnnotations = builder.ensureAllFieldsHaveAnnotations;
+        this.generateGetters = builder.generateGetters;
+        this.generateBuilder = builder.generateBuilder;
+        this.checkForNullsInConstructor = builder.checkForNullsInConstructor;
+        this.recognizedNullnessAnnotations = Collections.unmodifiableSet(EnumSet.copyOf(builder.recognizedNullnessAnnotations));
+        this.trackSetFieldsInBitMask = builder.trackSetFieldsInBitMask;
+        this.generateResetMethod = builder.generateResetMethod;
+        this.generateThreadLocalBuilder = builder.generateThreadLocalBuilder;
+        this.generateWithers = builder.generateWithers;
+        this.generateStagedBuilder = builder.generateStagedBuilder;
+        this.optimizeFieldLayout = builder.optimizeFieldLayout;
+        this.generateEqualsAndHashCode = builder.generateEqualsAndHashCode;
+        this.internInstances = builder.internInstances;
+        this.internCacheSize = builder.internCacheSize;
+        this.generateCollectionAccumulators = builder.generateCollectionAccumulators;
+        this.generateBinaryCodec = builder.generateBinaryCodec;
+        this.useCanonicalConstructor = builder.useCanonicalConstructor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean makeFieldsPrivateAndFinal() {
+        return makeFieldsPrivateAndFinal;
+    }
+
+    public boolean ensureAllFieldsHaveAnnotations() {
+        return ensureAllFieldsHaveAnnotations;
+    }
+
+    public boolean generateGetters() {
+        return generateGetters;
+    }
+
+    public boolean generateBuilder() {
+        return generateBuilder;
+    }
+
+    public boolean checkForNullsInConstructor() {
+        return checkForNullsInConstructor;
+    }
+
+    public Set<NullnessAnnotations> getRecognizedNullnessAnnotations() {
+        return recognizedNullnessAnnotations;
+    }
+
+    public boolean trackSetFieldsInBitMask() {
+        return trackSetFieldsInBitMask;
+    }
+
+    public boolean generateResetMethod() {
+        return generateResetMethod;
+    }
+
+    public boolean generateThreadLocalBuilder() {
+        return generateThreadLocalBuilder;
+    }
+
+    public boolean generateWithers() {
+        return generateWithers;
+    }
+
+    public boolean generateStagedBuilder() {
+        return generateStagedBuilder;
+    }
+
+    public boolean optimizeFieldLayout() {
+        return optimizeFieldLayout;
+    }
+
+    public boolean generateEqualsAndHashCode() {
+        return generateEqualsAndHashCode;
+    }
+
+    public boolean internInstances() {
+        return internInstances;
+    }
+
+    public int getInternCacheSize() {
+        return internCacheSize;
+    }
+
+    public boolean generateCollectionAccumulators() {
+        return generateCollectionAccumulators;
+    }
+
+    public boolean generateBinaryCodec() {
+        return generateBinaryCodec;
+    }
+
+    public boolean useCanonicalConstructor() {
+        return useCanonicalConstructor;
+    }
+
+    public static class Builder {
+
+        private boolean makeFieldsPrivateAndFinal;
+        private boolean ensureAllFieldsHaveAnnotations;
+        private boolean generateGetters;
+        private boolean generateBuilder;
+        private boolean checkForNullsInConstructor;
+        private final EnumSet<NullnessAnnotations> recognizedNullnessAnnotations = EnumSet.of(NullnessAnnotations.JSR_305);
+        private boolean trackSetFieldsInBitMask;
+        private boolean generateResetMethod;
+        private boolean generateThreadLocalBuilder;
+        private boolean generateWithers;
+        private boolean generateStagedBuilder;
+        private boolean optimizeFieldLayout;
+        private boolean generateEqualsAndHashCode;
+        private boolean internInstances;
+        private int internCacheSize = DEFAULT_INTERN_CACHE_SIZE;
+        private boolean generateCollectionAccumulators;
+        private boolean generateBinaryCodec;
+        private boolean useCanonicalConstructor;
+
+        private Builder() {
+        }
+
+        public Builder setMakeFieldsPrivateAndFinal(boolean makeFieldsPrivateAndFinal) {
+            this.makeFieldsPrivateAndFinal = makeFieldsPrivateAndFinal;
+            return this;
+        }
+
+        public Builder setEnsureAllFieldsHaveAnnotations(boolean ensureAllFieldsHaveAnnotations) {
+            this.ensureAllFieldsHaveAnnotations = ensureAllFieldsHaveAnnotations;
+            return this;
+        }
+
+        public Builder setGenerateGetters(boolean generateGetters) {
+            this.generateGetters = generateGetters;
+            return this;
+        }
+
+        public Builder setGenerateBuilder(boolean generateBuilder) {
+            this.generateBuilder = generateBuilder;
+            return this;
+        }
+
+        public Builder setCheckForNullsInConstructor(boolean checkForNullsInConstructor) {
+            this.checkForNullsInConstructor = checkForNullsInConstructor;
+            return this;
+        }
+
+        public Builder setRecognizedNullnessAnnotations(Collection<NullnessAnnotations> recognizedNullnessAnnotations) {
+            this.recognizedNullnessAnnotations.clear();
+            this.recognizedNullnessAnnotations.addAll(recognizedNullnessAnnotations);
+            return this;
+        }
+
+        public Builder setTrackSetFieldsInBitMask(boolean trackSetFieldsInBitMask) {
+            this.trackSetFieldsInBitMask = trackSetFieldsInBitMask;
+            return this;
+        }
+
+        public Builder setGenerateResetMethod(boolean generateResetMethod) {
+            this.generateResetMethod = generateResetMethod;
+            return this;
+        }
+
+        public Builder setGenerateThreadLocalBuilder(boolean generateThreadLocalBuilder) {
+            this.generateThreadLocalBuilder = generateThreadLocalBuilder;
+            return this;
+        }
+
+        public Builder setGenerateWithers(boolean generateWithers) {
+            this.generateWithers = generateWithers;
+            return this;
+        }
+
+        public Builder setGenerateStagedBuilder(boolean generateStagedBuilder) {
+            this.generateStagedBuilder = generateStagedBuilder;
+            return this;
+        }
+
+        public Builder setOptimizeFieldLayout(boolean optimizeFieldLayout) {
+            this.optimizeFieldLayout = optimizeFieldLayout;
+            return this;
+        }
+
+        public Builder setGenerateEqualsAndHashCode(boolean generateEqualsAndHashCode) {
+            this.generateEqualsAndHashCode = generateEqualsAndHashCode;
+            return this;
+        }
+
+        public Builder setInternInstances(boolean internInstances) {
+            this.internInstances = internInstances;
+            return this;
+        }
+
+        public Builder setInternCacheSize(int internCacheSize) {
+            if (internCacheSize <= 0) {
+                throw new IllegalArgumentException("Intern cache size must be positive: " + internCacheSize);
+            }
+            this.internCacheSize = internCacheSize;
+            return this;
+        }
+
+        public Builder setGenerateCollectionAccumulators(boolean generateCollectionAccumulators) {
+            this.generateCollectionAccumulators = generateCollectionAccumulators;
+            return this;
+        }
+
+        public Builder setGenerateBinaryCodec(boolean generateBinaryCodec) {
+            this.generateBinaryCodec = generateBinaryCodec;
+            return this;
+        }
+
+        public Builder setUseCanonicalConstructor(boolean useCanonicalConstructor) {
+            this.useCanonicalConstructor = useCanonicalConstructor;
+            return this;
+        }
+
+        public GenerationSettings build() {
+            return new GenerationSettings(this);
+        }
+    }
+}
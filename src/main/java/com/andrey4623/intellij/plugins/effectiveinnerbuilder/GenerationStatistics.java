@@ -0,0 +1,162 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.psi.PsiClass;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class GenerationStatistics implements GenerationListener {
+
+    private static final String ANONYMOUS_CLASS_NAME = "<anonymous>";
+
+    private final String className;
+    private final long timestamp;
+    private final Map<GenerationPhase, Long> phaseStarts = new EnumMap<>(GenerationPhase.class);
+    private final Map<GenerationPhase, Long> phaseNanos = new EnumMap<>(GenerationPhase.class);
+
+    private int fieldCount;
+    private int elementsCreated;
+    private int elementsInserted;
+    private int classReferencesShortened;
+
+    public GenerationStatistics(String className) {
+        this.className = className;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public static GenerationStatistics of(PsiClass psiClass) {
+        if (psiClass.getQualifiedName() != null) {
+            return new GenerationStatistics(psiClass.getQualifiedName());
+        }
+        return new GenerationStatistics(psiClass.getName() != null ? psiClass.getName() : ANONYMOUS_CLASS_NAME);
+    }
+
+    @Override
+    public void phaseStarted(GenerationPhase phase) {
+        phaseStarts.put(phase, System.nanoTime());
+    }
+
+    @Override
+    public void phaseFinished(GenerationPhase phase) {
+        final Long start = phaseStarts.remove(phase);
+        if (start != null) {
+            phaseNanos.merge(phase, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    @Override
+    public void elementCreated() {
+        elementsCreated++;
+    }
+
+    @Override
+    public void elementInserted() {
+        elementsInserted++;
+    }
+
+    @Override
+    public void classReferencesShortened() {
+        classReferencesShortened++;
+    }
+
+    public void setFieldCount(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public long getPhaseNanos(GenerationPhase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos.values()) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    public int getElementsCreated() {
+        return elementsCreated;
+    }
+
+    public int getElementsInserted() {
+        return elementsInserted;
+    }
+
+    public int getClassReferencesShortened() {
+        return classReferencesShortened;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(className).append(" (").append(fieldCount).append(" fields): ")
+                .append(toMillis(getTotalNanos())).append(" ms");
+
+        for (Map.Entry<GenerationPhase, Long> entry : phaseNanos.entrySet()) {
+            sb.append(", ").append(entry.getKey()).append('=').append(toMillis(entry.getValue())).append(" ms");
+        }
+
+        return sb.append(", elementsCreated=").append(elementsCreated)
+                .append(", elementsInserted=").append(elementsInserted)
+                .append(", classReferencesShortened=").append(classReferencesShortened)
+                .toString();
+    }
+
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\"className\":\"").append(escape(className)).append('"')
+                .append(",\"timestamp\":").append(timestamp)
+                .append(",\"fieldCount\":").append(fieldCount)
+                .append(",\"totalNanos\":").append(getTotalNanos())
+                .append(",\"phaseNanos\":{");
+
+        boolean first = true;
+        for (Map.Entry<GenerationPhase, Long> entry : phaseNanos.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            first = false;
+        }
+
+        return sb.append('}')
+                .append(",\"elementsCreated\":").append(elementsCreated)
+                .append(",\"elementsInserted\":").append(elementsInserted)
+                .append(",\"classReferencesShortened\":").append(classReferencesShortened)
+                .append('}')
+                .toString();
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round((double) nanos / TimeUnit.MILLISECONDS.toNanos(1) * 100) / 100.0;
+    }
+
+    private static String escape(String value) {
+        final StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
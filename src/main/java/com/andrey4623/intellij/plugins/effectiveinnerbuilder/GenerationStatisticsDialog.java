@@ -0,0 +1,168 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.Action;
+import javax.swing.JComponent;
+import javax.swing.table.AbstractTableModel;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class GenerationStatisticsDialog extends DialogWrapper {
+
+    private static final String[] LEADING_COLUMNS = {"Class", "Fields", "Total, ms"};
+    private static final String[] TRAILING_COLUMNS = {"Elements created", "Elements inserted", "Shorten calls"};
+
+    private final Project project;
+    private final List<GenerationStatistics> runs;
+
+    public GenerationStatisticsDialog(Project project) {
+        super(project);
+
+        this.project = project;
+        this.runs = GenerationStatisticsService.getInstance(project).getRuns();
+
+        setTitle("Builder generation statistics");
+        setOKButtonText("Close");
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        final JBTable table = new JBTable(new StatisticsTableModel(runs));
+        table.setAutoCreateRowSorter(true);
+
+        final JBScrollPane scrollPane = new JBScrollPane(table);
+        scrollPane.setPreferredSize(JBUI.size(900, 300));
+        return scrollPane;
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{new ExportAction(), getOKAction()};
+    }
+
+    private void export() {
+        final VirtualFileWrapper wrapper = FileChooserFactory.getInstance()
+                .createSaveFileDialog(
+                        new FileSaverDescriptor("Export Generation Statistics", "Save statistics as JSON", "json"),
+                        project
+                )
+                .save(null, "generation-statistics.json");
+
+        if (wrapper == null) {
+            return;
+        }
+
+        try {
+            Files.write(
+                    wrapper.getFile().toPath(),
+                    GenerationStatisticsService.getInstance(project).toJson().getBytes(StandardCharsets.UTF_8)
+            );
+        } catch (IOException e) {
+            Messages.showErrorDialog(project, e.getMessage(), "Export Generation Statistics");
+        }
+    }
+
+    private class ExportAction extends DialogWrapperAction {
+
+        private ExportAction() {
+            super("Export JSON...");
+        }
+
+        @Override
+        protected void doAction(ActionEvent e) {
+            export();
+        }
+    }
+
+    private static class StatisticsTableModel extends AbstractTableModel {
+
+        private static final GenerationPhase[] PHASES = GenerationPhase.values();
+
+        private final List<GenerationStatistics> runs;
+
+        private StatisticsTableModel(List<GenerationStatistics> runs) {
+            this.runs = runs;
+        }
+
+        @Override
+        public int getRowCount() {
+            return runs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return LEADING_COLUMNS.length + PHASES.length + TRAILING_COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column < LEADING_COLUMNS.length) {
+                return LEADING_COLUMNS[column];
+            }
+            column -= LEADING_COLUMNS.length;
+
+            if (column < PHASES.length) {
+                return PHASES[column].name();
+            }
+            return TRAILING_COLUMNS[column - PHASES.length];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column == 0) {
+                return String.class;
+            }
+            if (column == 1 || column >= LEADING_COLUMNS.length + PHASES.length) {
+                return Integer.class;
+            }
+            return Double.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            final GenerationStatistics statistics = runs.get(row);
+
+            switch (column) {
+                case 0:
+                    return statistics.getClassName();
+                case 1:
+                    return statistics.getFieldCount();
+                case 2:
+                    return GenerationStatistics.toMillis(statistics.getTotalNanos());
+                default:
+                    break;
+            }
+            column -= LEADING_COLUMNS.length;
+
+            if (column < PHASES.length) {
+                return GenerationStatistics.toMillis(statistics.getPhaseNanos(PHASES[column]));
+            }
+
+            switch (column - PHASES.length) {
+                case 0:
+                    return statistics.getElementsCreated();
+                case 1:
+                    return statistics.getElementsInserted();
+                default:
+                    return statistics.getClassReferencesShortened();
+            }
+        }
+    }
+}
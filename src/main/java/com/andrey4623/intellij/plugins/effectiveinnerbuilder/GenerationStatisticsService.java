@@ -0,0 +1,57 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public class GenerationStatisticsService {
+
+    private static final Logger LOG = Logger.getInstance(GenerationStatisticsService.class);
+
+    private static final int MAX_RUNS = 100;
+
+    private final Deque<GenerationStatistics> runs = new ArrayDeque<>();
+
+    public static GenerationStatisticsService getInstance(Project project) {
+        return ServiceManager.getService(project, GenerationStatisticsService.class);
+    }
+
+    public void record(GenerationStatistics statistics) {
+        LOG.info("Generated builder for " + statistics);
+
+        synchronized (runs) {
+            if (runs.size() == MAX_RUNS) {
+                runs.removeFirst();
+            }
+            runs.addLast(statistics);
+        }
+    }
+
+    public List<GenerationStatistics> getRuns() {
+        synchronized (runs) {
+            return new ArrayList<>(runs);
+        }
+    }
+
+    public void clear() {
+        synchronized (runs) {
+            runs.clear();
+        }
+    }
+
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder("[");
+
+        final List<GenerationStatistics> runs = getRuns();
+        for (int i = 0; i < runs.size(); i++) {
+            sb.append(i == 0 ? "\n  " : ",\n  ").append(runs.get(i).toJson());
+        }
+
+        return sb.append(runs.isEmpty() ? "]\n" : "\n]\n").toString();
+    }
+}
@@ -1,13 +1,24 @@
 package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
 
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.LabeledComponent;
 import com.intellij.psi.PsiClass;
+import com.intellij.ui.JBIntSpinner;
 import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.JComponent;
 import javax.swing.JPanel;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.util.EnumSet;
 
 public class GeneratorOptions extends DialogWrapper {
 
@@ -17,22 +28,72 @@ public class GeneratorOptions extends DialogWrapper {
     private JBCheckBox useJSR305AnnotationsCheckBox;
     private JBCheckBox ensureAllFieldsHaveAnnotationsJBCheckBox;
     private JBCheckBox makeFieldsPrivateAndFinalCheckBox;
+    private JBCheckBox recognizeOtherNullnessAnnotationsCheckBox;
+    private JBCheckBox trackSetFieldsInBitMaskCheckBox;
+    private JBCheckBox generateResetMethodCheckBox;
+    private JBCheckBox generateThreadLocalBuilderCheckBox;
+    private JBCheckBox generateWithersCheckBox;
+    private JBCheckBox generateStagedBuilderCheckBox;
+    private JBCheckBox optimizeFieldLayoutCheckBox;
+    private JBCheckBox generateEqualsAndHashCodeCheckBox;
+    private JBCheckBox internInstancesCheckBox;
+    private JBIntSpinner internCacheSizeSpinner;
+    private JBCheckBox generateCollectionAccumulatorsCheckBox;
+    private JBCheckBox generateBinaryCodecCheckBox;
+    private JBCheckBox useCanonicalConstructorCheckBox;
 
     private final LabeledComponent<JPanel> component;
+    private final PsiClass psiClass;
 
     public GeneratorOptions(PsiClass psiClass) {
-        super(psiClass.getProject());
+        this(psiClass.getProject(), psiClass);
+    }
+
+    public GeneratorOptions(Project project) {
+        this(project, null);
+    }
+
+    private GeneratorOptions(Project project, PsiClass psiClass) {
+        super(project);
 
         setTitle("Generate builder and getters");
 
-        component = LabeledComponent.create(panel, "");
+        this.component = LabeledComponent.create(panel, "");
+        this.psiClass = psiClass;
         init();
     }
 
+    private void createUIComponents() {
+        internCacheSizeSpinner = new JBIntSpinner(GenerationSettings.DEFAULT_INTERN_CACHE_SIZE, 1, Integer.MAX_VALUE, 1_000);
+    }
+
     @Nullable
     @Override
     protected JComponent createCenterPanel() {
-        return component;
+        if (psiClass == null) {
+            return component;
+        }
+
+        final JBTextArea reportArea = new JBTextArea("Computing memory layout...");
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, reportArea.getFont().getSize()));
+
+        final JBScrollPane reportPane = new JBScrollPane(reportArea);
+        reportPane.setPreferredSize(JBUI.size(600, 200));
+
+        ReadAction.nonBlocking(() -> getLayoutReport(psiClass))
+                .expireWhen(() -> isDisposed() || !psiClass.isValid())
+                .finishOnUiThread(ModalityState.any(), reportArea::setText)
+                .submit(AppExecutorUtil.getAppExecutorService());
+
+        final JPanel result = new JPanel(new BorderLayout(0, JBUI.scale(8)));
+        result.add(component, BorderLayout.NORTH);
+        result.add(LabeledComponent.create(reportPane, "Memory layout"), BorderLayout.CENTER);
+        return result;
+    }
+
+    private static String getLayoutReport(PsiClass psiClass) {
+        return FieldLayout.of(BuilderPlanner.plan(psiClass, GenerationSettings.builder().build())).getReport();
     }
 
     public boolean generateGetters() {
@@ -54,4 +115,83 @@ public class GeneratorOptions extends DialogWrapper {
     public boolean makeFieldsPrivateAndFinal() {
         return makeFieldsPrivateAndFinalCheckBox.isSelected();
     }
+
+    public boolean recognizeOtherNullnessAnnotations() {
+        return recognizeOtherNullnessAnnotationsCheckBox.isSelected();
+    }
+
+    public boolean trackSetFieldsInBitMask() {
+        return trackSetFieldsInBitMaskCheckBox.isSelected();
+    }
+
+    public boolean generateResetMethod() {
+        return generateResetMethodCheckBox.isSelected();
+    }
+
+    public boolean generateThreadLocalBuilder() {
+        return generateThreadLocalBuilderCheckBox.isSelected();
+    }
+
+    public boolean generateWithers() {
+        return generateWithersCheckBox.isSelected();
+    }
+
+    public boolean generateStagedBuilder() {
+        return generateStagedBuilderCheckBox.isSelected();
+    }
+
+    public boolean optimizeFieldLayout() {
+        return optimizeFieldLayoutCheckBox.isSelected();
+    }
+
+    public boolean generateEqualsAndHashCode() {
+        return generateEqualsAndHashCodeCheckBox.isSelected();
+    }
+
+    public boolean internInstances() {
+        return internInstancesCheckBox.isSelected();
+    }
+
+    public int getInternCacheSize() {
+        return internCacheSizeSpinner.getNumber();
+    }
+
+    public boolean generateCollectionAccumulators() {
+        return generateCollectionAccumulatorsCheckBox.isSelected();
+    }
+
+    public boolean generateBinaryCodec() {
+        return generateBinaryCodecCheckBox.isSelected();
+    }
+
+    public boolean useCanonicalConstructor() {
+        return useCanonicalConstructorCheckBox.isSelected();
+    }
+
+    public GenerationSettings getSettings() {
+        return GenerationSettings.builder()
+                .setMakeFieldsPrivateAndFinal(makeFieldsPrivateAndFinal())
+                .setEnsureAllFieldsHaveAnnotations(ensureAllFieldsHaveAnnotations())
+                .setGenerateGetters(generateGetters())
+                .setGenerateBuilder(generateBuilder())
+                .setCheckForNullsInConstructor(useJSR305Annotations())
+                .setRecognizedNullnessAnnotations(
+                        recognizeOtherNullnessAnnotations()
+                                ? EnumSet.allOf(NullnessAnnotations.class)
+                                : EnumSet.of(NullnessAnnotations.JSR_305)
+                )
+                .setTrackSetFieldsInBitMask(trackSetFieldsInBitMask())
+                .setGenerateResetMethod(generateResetMethod())
+                .setGenerateThreadLocalBuilder(generateThreadLocalBuilder())
+                .setGenerateWithers(generateWithers())
+                .setGenerateStagedBuilder(generateStagedBuilder())
+                .setOptimizeFieldLayout(optimizeFieldLayout())
+                .setGenerateEqualsAndHashCode(generateEqualsAndHashCode())
+                .setInternInstances(internInstances())
+                .setInternCacheSize(getInternCacheSize())
+                .setGenerateCollectionAccumulators(generateCollectionAccumulators())
+                .setGenerateBinaryCodec(generateBinaryCodec())
+                .setUseCanonicalConstructor(useCanonicalConstructor())
+                .build();
+    }
 }
@@ -0,0 +1,350 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiTypeElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MemberMerger {
+
+    private static final String BUILDER_CLASS_NAME = "Builder";
+
+    private MemberMerger() {
+    }
+
+    public static void merge(PsiClass psiClass, PsiClass generated, GenerationListener listener) {
+        final boolean generatingBuilder = generated.findInnerClassByName(BUILDER_CLASS_NAME, false) != null;
+        final Set<PsiMember> previouslyGenerated = new LinkedHashSet<>(
+                GeneratedMembers.findGettersOfRemovedFields(psiClass)
+        );
+        if (generatingBuilder) {
+            previouslyGenerated.addAll(GeneratedMembers.find(psiClass));
+        }
+        final PsiMethod canonicalConstructor = generatingBuilder
+                ? GeneratedMembers.findCanonicalConstructor(psiClass)
+                : null;
+
+        final Set<PsiElement> matched = merge(psiClass, generated, false, canonicalConstructor, listener);
+
+        for (PsiMember member : previouslyGenerated) {
+            if (member.isValid() && !matched.contains(member)) {
+                member.delete();
+            }
+        }
+    }
+
+    private static Set<PsiElement> merge(
+            PsiClass psiClass,
+            PsiClass generated,
+            boolean ownedByGenerator,
+            PsiMethod canonicalConstructor,
+            GenerationListener listener
+    ) {
+        final Set<PsiElement> matched = new HashSet<>();
+        final MemberIndex index = new MemberIndex(psiClass);
+
+        for (PsiElement member : generated.getChildren()) {
+            if (member instanceof PsiField) {
+                matched.add(mergeField(psiClass, index, (PsiField) member, listener));
+            } else if (member instanceof PsiMethod) {
+                final PsiMethod method = (PsiMethod) member;
+                if (isCanonicalConstructor(method)) {
+                    matched.add(mergeCanonicalConstructor(psiClass, index, method, canonicalConstructor, listener));
+                } else {
+                    matched.add(mergeMethod(psiClass, index, method, ownedByGenerator, listener));
+                }
+            } else if (member instanceof PsiClass) {
+                matched.add(mergeClass(psiClass, index, (PsiClass) member, listener));
+            }
+        }
+
+        if (ownedByGenerator) {
+            for (PsiElement member : psiClass.getChildren()) {
+                if (member instanceof PsiMember && !matched.contains(member)
+                        && GeneratedMembers.isMarked((PsiMember) member)) {
+                    member.delete();
+                }
+            }
+        }
+
+        return matched;
+    }
+
+    private static PsiElement mergeField(
+            PsiClass psiClass,
+            MemberIndex index,
+            PsiField field,
+            GenerationListener listener
+    ) {
+        final PsiField existing = index.findField(field.getName());
+
+        if (existing == null) {
+            listener.elementInserted();
+            return index.add(psiClass.add(field));
+        }
+        if (!sameText(existing, field)) {
+            listener.elementInserted();
+            return index.replace(existing, existing.replace(field));
+        }
+        return existing;
+    }
+
+    private static PsiElement mergeClass(
+            PsiClass psiClass,
+            MemberIndex index,
+            PsiClass innerClass,
+            GenerationListener listener
+    ) {
+        final PsiClass existing = index.findInnerClass(innerClass.getName());
+
+        if (existing == null) {
+            listener.elementInserted();
+            return index.add(psiClass.add(innerClass));
+        }
+        mergeReferenceList(existing.getExtendsList(), innerClass.getExtendsList(), listener);
+        mergeReferenceList(existing.getImplementsList(), innerClass.getImplementsList(), listener);
+        merge(existing, innerClass, true, null, listener);
+        return existing;
+    }
+
+    private static void mergeReferenceList(
+            PsiReferenceList existing,
+            PsiReferenceList referenceList,
+            GenerationListener listener
+    ) {
+        if (existing != null && referenceList != null && !sameText(existing, referenceList)) {
+            listener.elementInserted();
+            existing.replace(referenceList);
+        }
+    }
+
+    private static PsiElement mergeCanonicalConstructor(
+            PsiClass psiClass,
+            MemberIndex index,
+            PsiMethod constructor,
+            PsiMethod existing,
+            GenerationListener listener
+    ) {
+        if (existing == null) {
+            final PsiMethod sameSignature = findSameMethod(index, constructor);
+            if (sameSignature != null) {
+                return sameSignature;
+            }
+
+            listener.elementInserted();
+            return index.add(psiClass.add(constructor));
+        }
+
+        if (sameText(existing, constructor)) {
+            return existing;
+        }
+        if (existing.getBody() != null && constructor.getBody() != null
+                && sameText(getHeader(existing), getHeader(constructor))) {
+            mergeBody(existing.getBody(), constructor.getBody(), listener);
+            return existing;
+        }
+
+        listener.elementInserted();
+        return index.replace(existing, existing.replace(constructor));
+    }
+
+    private static PsiElement mergeMethod(
+            PsiClass psiClass,
+            MemberIndex index,
+            PsiMethod method,
+            boolean ownedByGenerator,
+            GenerationListener listener
+    ) {
+        final PsiMethod existing = findSameMethod(index, method);
+
+        if (existing == null) {
+            listener.elementInserted();
+            return index.add(psiClass.add(method));
+        }
+        if (sameText(existing, method)) {
+            return existing;
+        }
+
+        if (!ownedByGenerator && isGetter(method)) {
+            final PsiTypeElement returnTypeElement = existing.getReturnTypeElement();
+            if (returnTypeElement != null && method.getReturnTypeElement() != null
+                    && !sameText(returnTypeElement, method.getReturnTypeElement())) {
+                returnTypeElement.replace(method.getReturnTypeElement());
+                listener.elementInserted();
+            }
+            return existing;
+        }
+
+        final PsiCodeBlock existingBody = existing.getBody();
+        final PsiCodeBlock body = method.getBody();
+        if (existingBody != null && body != null && sameText(getHeader(existing), getHeader(method))) {
+            mergeBody(existingBody, body, listener);
+            return existing;
+        }
+
+        listener.elementInserted();
+        return index.replace(existing, existing.replace(method));
+    }
+
+    private static void mergeBody(PsiCodeBlock existingBody, PsiCodeBlock body, GenerationListener listener) {
+        final Map<String, Deque<PsiStatement>> existingStatements = new HashMap<>();
+        for (PsiStatement statement : existingBody.getStatements()) {
+            existingStatements.computeIfAbsent(normalize(statement.getText()), key -> new ArrayDeque<>()).add(statement);
+        }
+
+        PsiElement anchor = existingBody.getLBrace();
+        final Set<PsiStatement> kept = new HashSet<>();
+
+        for (PsiStatement statement : body.getStatements()) {
+            final Deque<PsiStatement> candidates = existingStatements.get(normalize(statement.getText()));
+            final PsiStatement existing = candidates == null ? null : candidates.poll();
+
+            if (existing != null) {
+                kept.add(existing);
+                anchor = existing;
+            } else {
+                anchor = existingBody.addAfter(statement, anchor);
+                listener.elementInserted();
+            }
+        }
+
+        for (Deque<PsiStatement> statements : existingStatements.values()) {
+            for (PsiStatement statement : statements) {
+                if (!kept.contains(statement)) {
+                    statement.delete();
+                }
+            }
+        }
+    }
+
+    private static PsiMethod findSameMethod(MemberIndex index, PsiMethod method) {
+        for (PsiMethod candidate : index.findMethods(method.getName())) {
+            if (candidate.isConstructor() == method.isConstructor() && sameParameterTypes(candidate, method)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameParameterTypes(PsiMethod first, PsiMethod second) {
+        final PsiParameter[] firstParameters = first.getParameterList().getParameters();
+        final PsiParameter[] secondParameters = second.getParameterList().getParameters();
+
+        if (firstParameters.length != secondParameters.length) {
+            return false;
+        }
+
+        for (int i = 0; i < firstParameters.length; i++) {
+            final String firstType = firstParameters[i].getType().getPresentableText();
+            final String secondType = secondParameters[i].getType().getPresentableText();
+            if (!firstType.equals(secondType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCanonicalConstructor(PsiMethod method) {
+        if (!method.isConstructor()) {
+            return false;
+        }
+
+        final PsiParameter[] parameters = method.getParameterList().getParameters();
+        return parameters.length != 1 || !BUILDER_CLASS_NAME.equals(parameters[0].getType().getPresentableText());
+    }
+
+    private static boolean isGetter(PsiMethod method) {
+        return !method.isConstructor()
+                && method.getName().startsWith("get")
+                && method.getParameterList().getParametersCount() == 0;
+    }
+
+    private static String getHeader(PsiMethod method) {
+        final PsiCodeBlock body = method.getBody();
+        final String text = method.getText();
+        return body == null ? text : text.substring(0, body.getStartOffsetInParent());
+    }
+
+    private static boolean sameText(PsiElement first, PsiElement second) {
+        return sameText(first.getText(), second.getText());
+    }
+
+    private static boolean sameText(String first, String second) {
+        return normalize(first).equals(normalize(second));
+    }
+
+    private static String normalize(String text) {
+        return text.replaceAll("\\s+", "");
+    }
+
+    private static class MemberIndex {
+
+        private final Map<String, PsiField> fields = new HashMap<>();
+        private final Map<String, List<PsiMethod>> methods = new HashMap<>();
+        private final Map<String, PsiClass> innerClasses = new HashMap<>();
+
+        MemberIndex(PsiClass psiClass) {
+            for (PsiField field : psiClass.getFields()) {
+                add(field);
+            }
+            for (PsiMethod method : psiClass.getMethods()) {
+                add(method);
+            }
+            for (PsiClass innerClass : psiClass.getInnerClasses()) {
+                add(innerClass);
+            }
+        }
+
+        PsiField findField(String name) {
+            return fields.get(name);
+        }
+
+        List<PsiMethod> findMethods(String name) {
+            return methods.getOrDefault(name, Collections.emptyList());
+        }
+
+        PsiClass findInnerClass(String name) {
+            return innerClasses.get(name);
+        }
+
+        PsiElement add(PsiElement member) {
+            if (member instanceof PsiField) {
+                fields.putIfAbsent(((PsiField) member).getName(), (PsiField) member);
+            } else if (member instanceof PsiMethod) {
+                final PsiMethod method = (PsiMethod) member;
+                methods.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(method);
+            } else if (member instanceof PsiClass) {
+                innerClasses.putIfAbsent(((PsiClass) member).getName(), (PsiClass) member);
+            }
+            return member;
+        }
+
+        PsiElement replace(PsiElement existing, PsiElement replacement) {
+            if (existing instanceof PsiField) {
+                fields.remove(((PsiField) existing).getName());
+            } else if (existing instanceof PsiMethod) {
+                findMethods(((PsiMethod) existing).getName()).remove(existing);
+            } else if (existing instanceof PsiClass) {
+                innerClasses.remove(((PsiClass) existing).getName());
+            }
+            return add(replacement);
+        }
+    }
+}
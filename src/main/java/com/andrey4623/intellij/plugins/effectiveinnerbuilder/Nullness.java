@@ -0,0 +1,7 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+public enum Nullness {
+    NONNULL,
+    NULLABLE,
+    UNKNOWN
+}
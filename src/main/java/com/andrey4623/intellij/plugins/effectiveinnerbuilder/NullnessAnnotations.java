@@ -0,0 +1,51 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.Collection;
+
+public enum NullnessAnnotations {
+    JSR_305("javax.annotation.Nonnull", "javax.annotation.Nullable"),
+    JETBRAINS("org.jetbrains.annotations.NotNull", "org.jetbrains.annotations.Nullable"),
+    CHECKER_FRAMEWORK(
+            "org.checkerframework.checker.nullness.qual.NonNull",
+            "org.checkerframework.checker.nullness.qual.Nullable"
+    ),
+    JAKARTA("jakarta.annotation.Nonnull", "jakarta.annotation.Nullable");
+
+    private final String nonNullQualifiedName;
+    private final String nullableQualifiedName;
+
+    NullnessAnnotations(String nonNullQualifiedName, String nullableQualifiedName) {
+        this.nonNullQualifiedName = nonNullQualifiedName;
+        this.nullableQualifiedName = nullableQualifiedName;
+    }
+
+    public String getNonNullQualifiedName() {
+        return nonNullQualifiedName;
+    }
+
+    public String getNullableQualifiedName() {
+        return nullableQualifiedName;
+    }
+
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    public static int toMask(Collection<NullnessAnnotations> annotations) {
+        int mask = 0;
+        for (NullnessAnnotations annotation : annotations) {
+            mask |= annotation.getMask();
+        }
+        return mask;
+    }
+
+    static boolean isCandidateShortName(String shortName) {
+        for (NullnessAnnotations annotations : values()) {
+            if (annotations.nonNullQualifiedName.endsWith("." + shortName)
+                    || annotations.nullableQualifiedName.endsWith("." + shortName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class NullnessResolver {
+
+    private NullnessResolver() {
+    }
+
+    public static NullnessTable getTable(PsiClass psiClass) {
+        return CachedValuesManager.getCachedValue(
+                psiClass,
+                () -> CachedValueProvider.Result.create(computeTable(psiClass), psiClass)
+        );
+    }
+
+    private static NullnessTable computeTable(PsiClass psiClass) {
+        final List<PsiField> psiFields = BuilderPlanner.getFields(psiClass);
+
+        final Map<String, Integer> indexes = new HashMap<>();
+        final int[] flags = new int[psiFields.size()];
+
+        for (int i = 0; i < psiFields.size(); i++) {
+            final PsiField psiField = psiFields.get(i);
+            indexes.put(psiField.getName(), i);
+
+            for (PsiAnnotation annotation : psiField.getAnnotations()) {
+                flags[i] |= classify(annotation);
+            }
+        }
+
+        return new NullnessTable(indexes, flags);
+    }
+
+    static List<PsiAnnotation> findNullnessAnnotations(PsiField psiField) {
+        final List<PsiAnnotation> annotations = new ArrayList<>();
+        for (PsiAnnotation annotation : psiField.getAnnotations()) {
+            if (classify(annotation) != 0) {
+                annotations.add(annotation);
+            }
+        }
+        return annotations;
+    }
+
+    private static int classify(PsiAnnotation annotation) {
+        final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+        if (reference == null || !NullnessAnnotations.isCandidateShortName(reference.getReferenceName())) {
+            return 0;
+        }
+
+        final String qualifiedName = annotation.getQualifiedName();
+        for (NullnessAnnotations annotations : NullnessAnnotations.values()) {
+            if (annotations.getNonNullQualifiedName().equals(qualifiedName)) {
+                return NullnessTable.nonNullFlag(annotations);
+            }
+            if (annotations.getNullableQualifiedName().equals(qualifiedName)) {
+                return NullnessTable.nullableFlag(annotations);
+            }
+        }
+        return 0;
+    }
+}
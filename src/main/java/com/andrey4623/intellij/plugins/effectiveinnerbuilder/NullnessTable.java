@@ -0,0 +1,41 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class NullnessTable {
+
+    private static final int NULLABLE_SHIFT = 16;
+
+    private final Map<String, Integer> indexes;
+    private final int[] flags;
+
+    NullnessTable(Map<String, Integer> indexes, int[] flags) {
+        this.indexes = new HashMap<>(indexes);
+        this.flags = flags;
+    }
+
+    static int nonNullFlag(NullnessAnnotations annotations) {
+        return annotations.getMask();
+    }
+
+    static int nullableFlag(NullnessAnnotations annotations) {
+        return annotations.getMask() << NULLABLE_SHIFT;
+    }
+
+    public Nullness getNullness(String fieldName, int annotationsMask) {
+        final Integer index = indexes.get(fieldName);
+        if (index == null) {
+            return Nullness.UNKNOWN;
+        }
+
+        final int fieldFlags = flags[index];
+        if (((fieldFlags >>> NULLABLE_SHIFT) & annotationsMask) != 0) {
+            return Nullness.NULLABLE;
+        }
+        if ((fieldFlags & annotationsMask) != 0) {
+            return Nullness.NONNULL;
+        }
+        return Nullness.UNKNOWN;
+    }
+}
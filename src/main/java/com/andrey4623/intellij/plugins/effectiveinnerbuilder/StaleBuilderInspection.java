@@ -0,0 +1,194 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.util.CachedValueProvider.Result;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class StaleBuilderInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    private static final String BUILDER_CLASS_NAME = "Builder";
+
+    private static final Pattern SET_FIELDS_PATTERN = Pattern.compile("setFields\\d+");
+    private static final Pattern OWNED_COLLECTIONS_PATTERN = Pattern.compile("ownedCollections\\d+");
+
+    @Nullable
+    @Override
+    public ProblemDescriptor[] checkClass(
+            @NotNull PsiClass aClass,
+            @NotNull InspectionManager manager,
+            boolean isOnTheFly
+    ) {
+        final PsiClass builderClass = aClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+        if (builderClass == null || builderClass.getNameIdentifier() == null) {
+            return null;
+        }
+
+        final List<String> staleFields = getStaleFields(aClass);
+        if (staleFields.isEmpty()) {
+            return null;
+        }
+
+        return new ProblemDescriptor[]{
+                manager.createProblemDescriptor(
+                        builderClass.getNameIdentifier(),
+                        "Builder is out of date with fields: " + String.join(", ", staleFields),
+                        isOnTheFly,
+                        new LocalQuickFix[]{new RegenerateBuilderFix()},
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING
+                )
+        };
+    }
+
+    static List<String> getStaleFields(PsiClass psiClass) {
+        return CachedValuesManager.getCachedValue(
+                psiClass,
+                () -> Result.create(computeStaleFields(psiClass), psiClass)
+        );
+    }
+
+    private static List<String> computeStaleFields(PsiClass psiClass) {
+        final PsiClass builderClass = psiClass.findInnerClassByName(BUILDER_CLASS_NAME, false);
+        if (builderClass == null || !GeneratedMembers.hasGeneratedBuilder(psiClass)) {
+            return Collections.emptyList();
+        }
+
+        final Map<String, String> classFields = new LinkedHashMap<>();
+        for (PsiField field : BuilderPlanner.getFields(psiClass)) {
+            classFields.put(field.getName(), field.getType().getCanonicalText());
+        }
+
+        final Map<String, String> builderFields = new LinkedHashMap<>();
+        for (PsiField field : builderClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC) && !isBookkeepingField(field.getName())) {
+                builderFields.put(field.getName(), getBuilderFieldType(builderClass, field));
+            }
+        }
+
+        final Set<String> copiedFields = getCopiedFields(GeneratedMembers.findOfMethod(psiClass));
+
+        if (classFields.equals(builderFields) && classFields.keySet().equals(copiedFields)) {
+            return Collections.emptyList();
+        }
+
+        final Set<String> result = new LinkedHashSet<>();
+        for (Map.Entry<String, String> field : classFields.entrySet()) {
+            if (!field.getValue().equals(builderFields.get(field.getKey())) || !copiedFields.contains(field.getKey())) {
+                result.add(field.getKey());
+            }
+        }
+        for (String name : builderFields.keySet()) {
+            if (!classFields.containsKey(name)) {
+                result.add(name);
+            }
+        }
+        for (String name : copiedFields) {
+            if (!classFields.containsKey(name)) {
+                result.add(name);
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result));
+    }
+
+    private static Set<String> getCopiedFields(PsiMethod ofMethod) {
+        final Set<String> result = new LinkedHashSet<>();
+        final PsiCodeBlock body = ofMethod == null ? null : ofMethod.getBody();
+        if (body == null) {
+            return result;
+        }
+
+        for (PsiStatement statement : body.getStatements()) {
+            if (!(statement instanceof PsiExpressionStatement)) {
+                continue;
+            }
+
+            final PsiExpression expression = ((PsiExpressionStatement) statement).getExpression();
+            if (!(expression instanceof PsiAssignmentExpression)) {
+                continue;
+            }
+
+            final PsiExpression target = ((PsiAssignmentExpression) expression).getLExpression();
+            if (target instanceof PsiReferenceExpression) {
+                final PsiReferenceExpression reference = (PsiReferenceExpression) target;
+                final PsiExpression qualifier = reference.getQualifierExpression();
+                final String name = reference.getReferenceName();
+                if ((qualifier == null || qualifier instanceof PsiThisExpression)
+                        && name != null && !isBookkeepingField(name)) {
+                    result.add(name);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBookkeepingField(String name) {
+        return SET_FIELDS_PATTERN.matcher(name).matches()
+                || OWNED_COLLECTIONS_PATTERN.matcher(name).matches()
+                || BuilderRenderer.COPIED_FROM.equals(name);
+    }
+
+    private static String getBuilderFieldType(PsiClass builderClass, PsiField field) {
+        final String setterName = "set" + BuilderRenderer.makeFirstLetterUpperCase(field.getName());
+        for (PsiMethod setter : builderClass.findMethodsByName(setterName, false)) {
+            final PsiParameter[] parameters = setter.getParameterList().getParameters();
+            if (parameters.length == 1) {
+                return parameters[0].getType().getCanonicalText();
+            }
+        }
+        return field.getType().getCanonicalText();
+    }
+
+    private static class RegenerateBuilderFix implements LocalQuickFix {
+
+        @NotNull
+        @Override
+        public String getFamilyName() {
+            return "Regenerate builder";
+        }
+
+        @Override
+        public boolean startInWriteAction() {
+            return false;
+        }
+
+        @Override
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+            final PsiElement element = descriptor.getPsiElement();
+            final PsiClass builderClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+            if (builderClass == null || builderClass.getContainingClass() == null) {
+                return;
+            }
+
+            ActionListener.generate(builderClass.getContainingClass());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class BuilderGeneratorPerformanceTest extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final int ATTEMPTS = 5;
+
+    private PsiClass psiClass;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package javax.annotation; public @interface Nonnull {}");
+        myFixture.addClass("package javax.annotation; public @interface Nullable {}");
+        myFixture.addClass("package javax.annotation; public @interface ParametersAreNonnullByDefault {}");
+    }
+
+    public void test10Fields() {
+        assertWithinBudget(10, new Budget()
+                .phase(GenerationPhase.PLAN, 7_600, 87)
+                .phase(GenerationPhase.MAKE_FIELDS_PRIVATE_AND_FINAL, 20_000, 4_300)
+                .phase(GenerationPhase.ENSURE_ANNOTATIONS, 5_000, 410)
+                .phase(GenerationPhase.RENDER, 5_000, 26)
+                .phase(GenerationPhase.PARSE, 12_000, 640)
+                .phase(GenerationPhase.SHORTEN_CLASS_REFERENCES, 12_000, 640)
+                .phase(GenerationPhase.MERGE, 14_000, 2_000)
+                .phase(GenerationPhase.ANNOTATE_CLASS, 5_000, 210));
+    }
+
+    public void test100Fields() {
+        assertWithinBudget(100, new Budget()
+                .phase(GenerationPhase.PLAN, 46_000, 780)
+                .phase(GenerationPhase.MAKE_FIELDS_PRIVATE_AND_FINAL, 250_000, 44_000)
+                .phase(GenerationPhase.ENSURE_ANNOTATIONS, 24_000, 4_200)
+                .phase(GenerationPhase.RENDER, 5_000, 220)
+                .phase(GenerationPhase.PARSE, 98_000, 5_800)
+                .phase(GenerationPhase.SHORTEN_CLASS_REFERENCES, 98_000, 5_800)
+                .phase(GenerationPhase.MERGE, 160_000, 19_000)
+                .phase(GenerationPhase.ANNOTATE_CLASS, 5_000, 210));
+    }
+
+    public void test500Fields() {
+        assertWithinBudget(500, new Budget()
+                .phase(GenerationPhase.PLAN, 170_000, 3_800)
+                .phase(GenerationPhase.MAKE_FIELDS_PRIVATE_AND_FINAL, 1_300_000, 230_000)
+                .phase(GenerationPhase.ENSURE_ANNOTATIONS, 140_000, 23_000)
+                .phase(GenerationPhase.RENDER, 18_000, 1_500)
+                .phase(GenerationPhase.PARSE, 440_000, 29_000)
+                .phase(GenerationPhase.SHORTEN_CLASS_REFERENCES, 440_000, 29_000)
+                .phase(GenerationPhase.MERGE, 1_100_000, 180_000)
+                .phase(GenerationPhase.ANNOTATE_CLASS, 5_000, 210));
+    }
+
+    public void test1000Fields() {
+        assertWithinBudget(1000, new Budget()
+                .phase(GenerationPhase.PLAN, 360_000, 7_700)
+                .phase(GenerationPhase.MAKE_FIELDS_PRIVATE_AND_FINAL, 4_700_000, 490_000)
+                .phase(GenerationPhase.ENSURE_ANNOTATIONS, 730_000, 51_000)
+                .phase(GenerationPhase.RENDER, 31_000, 2_900)
+                .phase(GenerationPhase.PARSE, 1_400_000, 58_000)
+                .phase(GenerationPhase.SHORTEN_CLASS_REFERENCES, 1_400_000, 58_000)
+                .phase(GenerationPhase.MERGE, 5_000_000, 600_000)
+                .phase(GenerationPhase.ANNOTATE_CLASS, 5_000, 210));
+    }
+
+    private void assertWithinBudget(int fieldCount, Budget budget) {
+        final String className = "Synthetic" + fieldCount;
+        final GenerationSettings settings = GenerationSettings.builder()
+                .setMakeFieldsPrivateAndFinal(true)
+                .setEnsureAllFieldsHaveAnnotations(true)
+                .setGenerateGetters(true)
+                .setGenerateBuilder(true)
+                .setCheckForNullsInConstructor(true)
+                .build();
+        final int expectedMs = (int) TimeUnit.MICROSECONDS.toMillis(budget.getTotalMicros());
+        final List<PhaseProfile> profiles = new ArrayList<>();
+
+        PlatformTestUtil.startPerformanceTest(className, expectedMs, () -> {
+            final PhaseProfile profile = new PhaseProfile();
+            final BuilderPlan plan = BuilderPlanner.plan(psiClass, settings, profile);
+            WriteCommandAction.runWriteCommandAction(
+                    getProject(),
+                    () -> BuilderGenerator.generate(psiClass, plan, profile)
+            );
+            profiles.add(profile);
+        }).setup(() -> {
+            final PsiJavaFile file = (PsiJavaFile) myFixture.configureByText(
+                    className + ".java",
+                    GeneratedSources.syntheticClass(className, fieldCount)
+            );
+            psiClass = file.getClasses()[0];
+        }).attempts(ATTEMPTS).assertTiming();
+
+        for (GenerationPhase phase : GenerationPhase.values()) {
+            long bestNanos = Long.MAX_VALUE;
+            long bestBytes = Long.MAX_VALUE;
+            for (PhaseProfile profile : profiles) {
+                bestNanos = Math.min(bestNanos, profile.getNanos(phase));
+                bestBytes = Math.min(bestBytes, profile.getBytes(phase));
+            }
+
+            final long micros = TimeUnit.NANOSECONDS.toMicros(bestNanos);
+            final long kilobytes = bestBytes / 1024;
+            assertTrue(phase + " took " + micros + " us for " + fieldCount + " fields, budget is "
+                            + budget.getMicros(phase) + " us",
+                    micros <= budget.getMicros(phase));
+            assertTrue(phase + " allocated " + kilobytes + " KB for " + fieldCount + " fields, budget is "
+                            + budget.getKilobytes(phase) + " KB",
+                    kilobytes <= budget.getKilobytes(phase));
+        }
+    }
+
+    private static class Budget {
+
+        private final Map<GenerationPhase, Long> micros = new EnumMap<>(GenerationPhase.class);
+        private final Map<GenerationPhase, Long> kilobytes = new EnumMap<>(GenerationPhase.class);
+
+        Budget phase(GenerationPhase phase, long micros, long kilobytes) {
+            this.micros.put(phase, micros);
+            this.kilobytes.put(phase, kilobytes);
+            return this;
+        }
+
+        long getMicros(GenerationPhase phase) {
+            return get(micros, phase);
+        }
+
+        long getKilobytes(GenerationPhase phase) {
+            return get(kilobytes, phase);
+        }
+
+        long getTotalMicros() {
+            long result = 0;
+            for (long phaseMicros : micros.values()) {
+                result += phaseMicros;
+            }
+            return result;
+        }
+
+        private static long get(Map<GenerationPhase, Long> budget, GenerationPhase phase) {
+            final Long result = budget.get(phase);
+            if (result == null) {
+                throw new IllegalStateException("No budget for " + phase);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class BuilderRendererTest {
+
+    private static final int[] FIELD_COUNTS = {10, 100};
+
+    private final RenderMode mode;
+    private final int fieldCount;
+
+    public BuilderRendererTest(RenderMode mode, int fieldCount) {
+        this.mode = mode;
+        this.fieldCount = fieldCount;
+    }
+
+    @Parameters(name = "{0} with {1} fields")
+    public static Collection<Object[]> parameters() {
+        final List<Object[]> result = new ArrayList<>();
+        for (RenderMode mode : RenderMode.values()) {
+            for (int fieldCount : FIELD_COUNTS) {
+                result.add(new Object[]{mode, fieldCount});
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void rendersCompilableSource() throws IOException {
+        final String className = mode.getClassPrefix() + fieldCount;
+        final BuilderPlan plan = createPlan(className);
+        final String source = renderClass(plan);
+
+        assertTrue(mode + " output should contain " + mode.getMarker(className),
+                source.contains(mode.getMarker(className)));
+        assertEquals(source, Collections.emptyList(), GeneratedSources.compile(className, source));
+    }
+
+    private BuilderPlan createPlan(String className) {
+        final GenerationSettings.Builder settings = GenerationSettings.builder()
+                .setGenerateGetters(true)
+                .setGenerateBuilder(true)
+                .setCheckForNullsInConstructor(true);
+        mode.configure(settings);
+
+        final BuilderPlan.Builder builder = BuilderPlan.builder()
+                .setClassName(className)
+                .setSettings(settings.build())
+                .setAllFieldsHaveAnnotations(true);
+
+        for (int i = 0; i < fieldCount; i++) {
+            builder.addField(createField(mode.getFieldName(i), i));
+        }
+        return builder.build();
+    }
+
+    private FieldDescriptor createField(String name, int index) {
+        final FieldDescriptor.Builder builder = FieldDescriptor.builder().setName(name);
+
+        switch (index % 6) {
+            case 0:
+                return builder.setType("int").setBoxedType("java.lang.Integer").setPrimitive(true).build();
+            case 1:
+                return builder.setType("java.lang.String").setBoxedType("java.lang.String")
+                        .setNullness(Nullness.NONNULL).build();
+            case 2:
+                return builder.setType("long").setBoxedType("java.lang.Long").setPrimitive(true).build();
+            case 3:
+                return builder.setType("java.lang.String").setBoxedType("java.lang.String")
+                        .setNullness(Nullness.NULLABLE).build();
+            case 4:
+                return builder.setType("java.util.concurrent.TimeUnit").setBoxedType("java.util.concurrent.TimeUnit")
+                        .setNullness(Nullness.NONNULL).setEnumType(true).build();
+            default:
+                if (!mode.supportsCollections()) {
+                    return builder.setType("boolean").setBoxedType("java.lang.Boolean").setPrimitive(true).build();
+                }
+                if (index % 12 == 11) {
+                    return builder.setType("java.util.Map<java.lang.String, java.lang.Integer>")
+                            .setBoxedType("java.util.Map<java.lang.String, java.lang.Integer>")
+                            .setNullness(Nullness.NONNULL).setCollectionKind(CollectionKind.MAP)
+                            .addTypeArgument("java.lang.String").addTypeArgument("java.lang.Integer").build();
+                }
+                return builder.setType("java.util.List<java.lang.String>")
+                        .setBoxedType("java.util.List<java.lang.String>")
+                        .setNullness(Nullness.NONNULL).setCollectionKind(CollectionKind.LIST)
+                        .addTypeArgument("java.lang.String").build();
+        }
+    }
+
+    private static String renderClass(BuilderPlan plan) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("public class ").append(plan.getClassName()).append(" {\n\n");
+        for (FieldDescriptor field : plan.getFields()) {
+            sb.append("private final ").append(field.getType()).append(' ').append(field.getName()).append(";\n");
+        }
+        sb.append('\n');
+        sb.append(BuilderRenderer.render(plan));
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private enum RenderMode {
+        CLASSIC("Classic", "public Builder of(") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+            }
+        },
+        BIT_MASK("BitMask", "setFields0") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setTrackSetFieldsInBitMask(true).setGenerateResetMethod(true);
+            }
+        },
+        REUSABLE("Reusable", "REUSABLE_BUILDER") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setTrackSetFieldsInBitMask(true).setGenerateThreadLocalBuilder(true);
+            }
+        },
+        STAGED("Staged", "interface BuildStage") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateStagedBuilder(true);
+            }
+        },
+        WITHERS("Withers", " withField0(") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateWithers(true);
+            }
+        },
+        CANONICAL("Canonical", "return new %s(field0, ") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setUseCanonicalConstructor(true);
+            }
+        },
+        EQUALS_AND_HASH_CODE("Equality", "public boolean equals(") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateEqualsAndHashCode(true);
+            }
+        },
+        EQUALS_WITHOUT_NULL_CHECKS("NullableEquality", "java.util.Objects.equals(this.field1, that.field1)") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateEqualsAndHashCode(true).setCheckForNullsInConstructor(false);
+            }
+        },
+        INTERNING("Interned", "INTERN_CACHE_MAX_SIZE = 64;") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setInternInstances(true).setInternCacheSize(64);
+            }
+        },
+        ACCUMULATORS("Accumulating", "addField5(") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateCollectionAccumulators(true);
+            }
+        },
+        ACCUMULATORS_SHADOWING_PARAMETERS("Shadowing", "this.elements.addAll(elements)") {
+            private final String[] collectionFieldNames = {"elements", "key", "element", "value", "expectedSize"};
+
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateCollectionAccumulators(true);
+            }
+
+            @Override
+            String getFieldName(int index) {
+                final int collectionIndex = index / 6;
+                return index % 6 == 5 && collectionIndex < collectionFieldNames.length
+                        ? collectionFieldNames[collectionIndex]
+                        : super.getFieldName(index);
+            }
+        },
+        BINARY_CODEC("Codec", "public void writeTo(") {
+            @Override
+            void configure(GenerationSettings.Builder settings) {
+                settings.setGenerateBinaryCodec(true);
+            }
+
+            @Override
+            boolean supportsCollections() {
+                return false;
+            }
+        };
+
+        private final String classPrefix;
+        private final String marker;
+
+        RenderMode(String classPrefix, String marker) {
+            this.classPrefix = classPrefix;
+            this.marker = marker;
+        }
+
+        abstract void configure(GenerationSettings.Builder settings);
+
+        boolean supportsCollections() {
+            return true;
+        }
+
+        String getFieldName(int index) {
+            return "field" + index;
+        }
+
+        String getClassPrefix() {
+            return classPrefix;
+        }
+
+        String getMarker(String className) {
+            return String.format(marker, className);
+        }
+    }
+}
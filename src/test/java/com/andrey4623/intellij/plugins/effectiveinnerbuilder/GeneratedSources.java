@@ -0,0 +1,90 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import javax.annotation.Nonnull;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class GeneratedSources {
+
+    private GeneratedSources() {
+    }
+
+    static String syntheticClass(String className, int fieldCount) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("public class ").append(className).append(" {\n");
+        for (int i = 0; i < fieldCount; i++) {
+            sb.append("    ").append(getDeclaration(i)).append(" field").append(i).append(";\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    static List<String> compile(String className, String source) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Tests must run on a JDK, not a JRE");
+        }
+
+        final Path dir = Files.createTempDirectory("effective-inner-builder");
+        final File file = dir.resolve(className + ".java").toFile();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager =
+                     compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    Arrays.asList("-proc:none", "-d", dir.toString(), "-classpath", getAnnotationsClassPath()),
+                    null,
+                    fileManager.getJavaFileObjects(file)
+            ).call();
+        }
+
+        final List<String> result = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                result.add(diagnostic.getLineNumber() + ": " + diagnostic.getMessage(null));
+            }
+        }
+        return result;
+    }
+
+    private static String getDeclaration(int index) {
+        switch (index % 5) {
+            case 0:
+                return "private int";
+            case 1:
+                return "@javax.annotation.Nonnull private String";
+            case 2:
+                return "private long";
+            case 3:
+                return "@javax.annotation.Nullable private String";
+            default:
+                return "private java.util.List<String>";
+        }
+    }
+
+    private static String getAnnotationsClassPath() {
+        try {
+            return Paths.get(Nonnull.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class MemberMergerTest extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final String FOO = "public class Foo {\n"
+            + "    private final int a;\n"
+            + "    @javax.annotation.Nonnull private final String b;\n"
+            + "}\n";
+
+    public void testRegenerationKeepsGeneratedMembers() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings().setGenerateWithers(true));
+        final String text = psiClass.getText();
+
+        generate(psiClass, settings().setGenerateWithers(true));
+
+        assertEquals(text, psiClass.getText());
+        assertCompiles(psiClass);
+    }
+
+    public void testAddedFieldIsMergedIntoBuilder() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings());
+
+        addField(psiClass, "private final long c;");
+        generate(psiClass, settings());
+
+        assertSize(1, psiClass.findMethodsByName("getC", false));
+        assertSize(1, psiClass.findInnerClassByName("Builder", false).findMethodsByName("setC", false));
+        assertCompiles(psiClass);
+    }
+
+    public void testHandWrittenMembersAreKept() throws IOException {
+        final PsiClass psiClass = configure("public class Foo {\n"
+                + "    private final int a;\n"
+                + "    public int twice() { return a * 2; }\n"
+                + "}\n");
+        generate(psiClass, settings());
+        generate(psiClass, settings());
+
+        assertSize(1, psiClass.findMethodsByName("twice", false));
+        assertSize(1, psiClass.findMethodsByName("getA", false));
+        assertCompiles(psiClass);
+    }
+
+    public void testAddedFieldReplacesGeneratedCanonicalConstructor() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings().setGenerateWithers(true));
+
+        addField(psiClass, "private final long c;");
+        generate(psiClass, settings().setGenerateWithers(true));
+
+        assertConstructors(psiClass, "(Builder builder)", "(int a, String b, long c)");
+        assertCompiles(psiClass);
+    }
+
+    public void testCanonicalModeReplacesGeneratedCanonicalConstructor() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings().setUseCanonicalConstructor(true));
+
+        addField(psiClass, "private final long c;");
+        generate(psiClass, settings().setUseCanonicalConstructor(true));
+
+        assertConstructors(psiClass, "(int a, String b, long c)");
+        assertCompiles(psiClass);
+    }
+
+    public void testLeavingCanonicalModeRestoresBuilderConstructor() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings().setUseCanonicalConstructor(true));
+        generate(psiClass, settings());
+
+        assertConstructors(psiClass, "(Builder builder)");
+        assertCompiles(psiClass);
+    }
+
+    public void testUserAllFieldsConstructorIsNotOverwritten() throws IOException {
+        final String userConstructor = "public Foo(int a, String b) { this.a = a; this.b = b.trim(); }";
+        final PsiClass psiClass = configure("public class Foo {\n"
+                + "    private final int a;\n"
+                + "    @javax.annotation.Nonnull private final String b;\n"
+                + "    " + userConstructor + "\n"
+                + "}\n");
+
+        generate(psiClass, settings().setGenerateWithers(true).setUseCanonicalConstructor(true));
+
+        assertEquals(userConstructor, psiClass.getConstructors()[0].getText());
+        assertConstructors(psiClass, "(int a, String b)", "(Builder builder)");
+        assertEmpty(psiClass.findMethodsByName("withA", false));
+        assertCompiles(psiClass);
+    }
+
+    public void testDisabledWithersArePruned() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings().setGenerateWithers(true));
+        generate(psiClass, settings());
+
+        assertEmpty(psiClass.findMethodsByName("withA", false));
+        assertEmpty(psiClass.findMethodsByName("withB", false));
+        assertConstructors(psiClass, "(Builder builder)");
+        assertCompiles(psiClass);
+    }
+
+    public void testRemovedFieldPrunesWitherAndStage() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings().setGenerateWithers(true).setGenerateStagedBuilder(true));
+        assertNotNull(psiClass.findInnerClassByName("BStage", false));
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> psiClass.findFieldByName("b", false).delete());
+        generate(psiClass, settings().setGenerateWithers(true).setGenerateStagedBuilder(true));
+
+        assertNull(psiClass.findInnerClassByName("BStage", false));
+        assertEmpty(psiClass.findMethodsByName("withB", false));
+        assertEmpty(psiClass.findMethodsByName("getB", false));
+        assertConstructors(psiClass, "(Builder builder)", "(int a)");
+        assertCompiles(psiClass);
+    }
+
+    public void testRemovedFieldPrunesOnlyItsGetter() throws IOException {
+        final PsiClass psiClass = configure("public class Foo {\n"
+                + "    private int a;\n"
+                + "    private long b;\n"
+                + "    public int getTwice() { return a * 2; }\n"
+                + "}\n");
+        generate(psiClass, GenerationSettings.builder().setGenerateGetters(true));
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> psiClass.findFieldByName("b", false).delete());
+        generate(psiClass, GenerationSettings.builder().setGenerateGetters(true));
+
+        assertEmpty(psiClass.findMethodsByName("getB", false));
+        assertSize(1, psiClass.findMethodsByName("getA", false));
+        assertSize(1, psiClass.findMethodsByName("getTwice", false));
+        assertCompiles(psiClass);
+    }
+
+    public void testHandWrittenMembersNamedLikeGeneratedOnesAreKept() throws IOException {
+        final PsiClass psiClass = configure("public class Foo {\n"
+                + "    private final int a;\n"
+                + "    public void writeTo(java.nio.ByteBuffer buffer) { buffer.putInt(a); }\n"
+                + "    private static String readUtf8(java.nio.ByteBuffer buffer) { return \"\"; }\n"
+                + "    public static long internHits() { return 0L; }\n"
+                + "}\n");
+        generate(psiClass, settings());
+        generate(psiClass, settings());
+
+        for (String name : new String[]{"writeTo", "readUtf8", "internHits"}) {
+            assertEquals(name, 1, psiClass.findMethodsByName(name, false).length);
+        }
+        assertCompiles(psiClass);
+    }
+
+    public void testHandWrittenBuilderMembersAreKept() throws IOException {
+        final PsiClass psiClass = configure(FOO);
+        generate(psiClass, settings());
+
+        final PsiClass builderClass = psiClass.findInnerClassByName("Builder", false);
+        final PsiMethod method = JavaPsiFacade.getElementFactory(getProject()).createMethodFromText(
+                "public Builder setBoth(int a, String b) { return setA(a).setB(b); }", builderClass
+        );
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> builderClass.add(method));
+        generate(psiClass, settings());
+
+        assertSize(1, psiClass.findInnerClassByName("Builder", false).findMethodsByName("setBoth", false));
+        assertCompiles(psiClass);
+    }
+
+    public void testDisabledOptionsPruneOuterMembers() throws IOException {
+        final PsiClass psiClass = configure("public class Foo {\n"
+                + "    private final int a;\n"
+                + "    private final long b;\n"
+                + "}\n");
+        generate(psiClass, settings()
+                .setGenerateWithers(true)
+                .setGenerateStagedBuilder(true)
+                .setGenerateThreadLocalBuilder(true)
+                .setGenerateEqualsAndHashCode(true)
+                .setInternInstances(true)
+                .setGenerateBinaryCodec(true));
+        assertNotNull(psiClass.findFieldByName("INTERN_CACHE", false));
+        assertSize(1, psiClass.findMethodsByName("writeTo", false));
+
+        generate(psiClass, settings());
+
+        for (String name : new String[]{"REUSABLE_BUILDER", "INTERN_CACHE", "INTERN_HITS", "INTERN_MISSES"}) {
+            assertNull(name, psiClass.findFieldByName(name, false));
+        }
+        for (String name : new String[]{"withA", "reusableBuilder", "intern", "internHits", "writeTo", "readFrom"}) {
+            assertEquals(name, 0, psiClass.findMethodsByName(name, false).length);
+        }
+        assertNull(psiClass.findInnerClassByName("BuildStage", false));
+        assertEmpty(psiClass.findInnerClassByName("Builder", false).getImplementsListTypes());
+        assertCompiles(psiClass);
+    }
+
+    private PsiClass configure(String text) {
+        return ((PsiJavaFile) myFixture.configureByText("Foo.java", text)).getClasses()[0];
+    }
+
+    private static GenerationSettings.Builder settings() {
+        return GenerationSettings.builder()
+                .setGenerateGetters(true)
+                .setGenerateBuilder(true)
+                .setCheckForNullsInConstructor(true);
+    }
+
+    private void generate(PsiClass psiClass, GenerationSettings.Builder settings) {
+        final BuilderPlan plan = BuilderPlanner.plan(psiClass, settings.build());
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> BuilderGenerator.generate(psiClass, plan));
+    }
+
+    private void addField(PsiClass psiClass, String text) {
+        final PsiField field = JavaPsiFacade.getElementFactory(getProject()).createFieldFromText(text, psiClass);
+        WriteCommandAction.runWriteCommandAction(
+                getProject(),
+                () -> psiClass.addAfter(field, psiClass.getFields()[psiClass.getFields().length - 1])
+        );
+    }
+
+    private static void assertConstructors(PsiClass psiClass, String... parameterLists) {
+        final String[] actual = new String[psiClass.getConstructors().length];
+        for (int i = 0; i < actual.length; i++) {
+            final PsiMethod constructor = psiClass.getConstructors()[i];
+            actual[i] = constructor.getParameterList().getText();
+        }
+        assertOrderedEquals(actual, parameterLists);
+    }
+
+    private static void assertCompiles(PsiClass psiClass) throws IOException {
+        final String text = psiClass.getContainingFile().getText();
+        assertEquals(text, Collections.emptyList(), GeneratedSources.compile(psiClass.getName(), text));
+    }
+}
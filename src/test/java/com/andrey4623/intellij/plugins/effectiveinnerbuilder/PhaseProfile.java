@@ -0,0 +1,60 @@
+package com.andrey4623.intellij.plugins.effectiveinnerbuilder;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+class PhaseProfile implements GenerationListener {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<GenerationPhase, Long> startNanos = new EnumMap<>(GenerationPhase.class);
+    private final Map<GenerationPhase, Long> startBytes = new EnumMap<>(GenerationPhase.class);
+    private final Map<GenerationPhase, Long> nanos = new EnumMap<>(GenerationPhase.class);
+    private final Map<GenerationPhase, Long> bytes = new EnumMap<>(GenerationPhase.class);
+
+    @Override
+    public void phaseStarted(GenerationPhase phase) {
+        startBytes.put(phase, getAllocatedBytes());
+        startNanos.put(phase, System.nanoTime());
+    }
+
+    @Override
+    public void phaseFinished(GenerationPhase phase) {
+        final long finishNanos = System.nanoTime();
+        final long finishBytes = getAllocatedBytes();
+
+        final Long phaseStartNanos = startNanos.remove(phase);
+        final Long phaseStartBytes = startBytes.remove(phase);
+        if (phaseStartNanos != null && phaseStartBytes != null) {
+            nanos.merge(phase, finishNanos - phaseStartNanos, Long::sum);
+            bytes.merge(phase, finishBytes - phaseStartBytes, Long::sum);
+        }
+    }
+
+    @Override
+    public void elementCreated() {
+    }
+
+    @Override
+    public void elementInserted() {
+    }
+
+    @Override
+    public void classReferencesShortened() {
+    }
+
+    long getNanos(GenerationPhase phase) {
+        return nanos.getOrDefault(phase, 0L);
+    }
+
+    long getBytes(GenerationPhase phase) {
+        return bytes.getOrDefault(phase, 0L);
+    }
+
+    private static long getAllocatedBytes() {
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}